@@ -0,0 +1,11 @@
+package com.example.reactive;
+
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+/**
+ * Limits for bulk employee inserts, bound from {@code app.employee.batch} like the WebMvc application.
+ *
+ * @param maxItems largest number of employees accepted by one {@code POST /employee/batch}
+ */
+public record BatchProperties(@DefaultValue("10000") int maxItems) {
+}
@@ -0,0 +1,28 @@
+package com.example.reactive;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.annotation.Version;
+import org.springframework.data.relational.core.mapping.Table;
+
+/**
+ * Employee row, mapped by Spring Data R2DBC and serialized with the same JSON shape as the
+ * WebMvc application's employee views.
+ *
+ * @param id      the employee id, generated by the database
+ * @param name    the employee name
+ * @param email   the employee email
+ * @param phone   the employee phone
+ * @param version the optimistic lock version, exposed to clients as the entity tag
+ */
+@Table("employee")
+public record Employee(@Id Long id, String name, String email, String phone, @Version Long version) {
+
+    /**
+     * Copies the client supplied fields into a new, unsaved employee, ignoring any id or version.
+     *
+     * @return an employee ready to be inserted
+     */
+    Employee asNew() {
+        return new Employee(null, name, email, phone, null);
+    }
+}
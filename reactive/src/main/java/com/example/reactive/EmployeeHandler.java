@@ -0,0 +1,386 @@
+package com.example.reactive;
+
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.r2dbc.core.R2dbcEntityTemplate;
+import org.springframework.data.relational.core.query.Criteria;
+import org.springframework.data.relational.core.query.Query;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.r2dbc.core.Parameter;
+import org.springframework.transaction.reactive.TransactionalOperator;
+import org.springframework.web.reactive.function.BodyInserters;
+import org.springframework.web.reactive.function.server.ServerRequest;
+import org.springframework.web.reactive.function.server.ServerResponse;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.util.UriComponentsBuilder;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Reactive handlers for the {@code /employee} routes, mirroring the WebMvc application's
+ * {@code EmployeeResource} request and response shapes, status codes and ETag semantics.
+ *
+ * <p>Every database call is non-blocking R2DBC, so a request holds neither a thread nor a
+ * connection while it waits; connections come from the R2DBC pool only for the duration of a
+ * statement or transaction.</p>
+ */
+public class EmployeeHandler {
+
+    static final String NOT_FOUND = "Employee not found";
+    private static final String MODIFIED = "Employee has been modified";
+    private static final DefaultDataBufferFactory BUFFERS = DefaultDataBufferFactory.sharedInstance;
+
+    private final EmployeeRepository repository;
+    private final R2dbcEntityTemplate template;
+    private final DatabaseClient databaseClient;
+    private final TransactionalOperator transactionalOperator;
+    private final JsonMapper jsonMapper;
+    private final PagingProperties paging;
+    private final BatchProperties batch;
+
+    /**
+     * Creates the handler.
+     *
+     * @param repository            repository for single-row reads and writes
+     * @param template              entity template for keyset pages and the streamed table scan
+     * @param databaseClient        client for the single-statement updates
+     * @param transactionalOperator wraps a batch insert in one transaction
+     * @param jsonMapper            mapper used to encode rows of the streamed response
+     * @param paging                page size limits
+     * @param batch                 batch size limits
+     */
+    public EmployeeHandler(EmployeeRepository repository, R2dbcEntityTemplate template, DatabaseClient databaseClient,
+                           TransactionalOperator transactionalOperator, JsonMapper jsonMapper,
+                           PagingProperties paging, BatchProperties batch) {
+        this.repository = repository;
+        this.template = template;
+        this.databaseClient = databaseClient;
+        this.transactionalOperator = transactionalOperator;
+        this.jsonMapper = jsonMapper;
+        this.paging = paging;
+        this.batch = batch;
+    }
+
+    /**
+     * Persists a new employee from the JSON body.
+     *
+     * @param request the HTTP request containing an Employee payload
+     * @return 200 OK with the persisted entity and its ETag
+     */
+    public Mono<ServerResponse> save(ServerRequest request) {
+        return request.bodyToMono(Employee.class)
+                .switchIfEmpty(Mono.error(() -> badRequest("request body is required")))
+                .flatMap(body -> repository.save(body.asNew()))
+                .flatMap(employee -> ServerResponse.ok()
+                        .varyBy(HttpHeaders.ACCEPT)
+                        .eTag(eTag(employee.version()))
+                        .bodyValue(employee));
+    }
+
+    /**
+     * Persists a JSON array of new employees in one transaction.
+     *
+     * @param request the HTTP request containing an array of Employee payloads
+     * @return 200 OK with the persisted employees and their generated ids
+     */
+    public Mono<ServerResponse> saveAll(ServerRequest request) {
+        return request.bodyToFlux(Employee.class)
+                .map(Employee::asNew)
+                .collectList()
+                .flatMap(employees -> {
+                    if (employees.isEmpty() || employees.size() > batch.maxItems()) {
+                        return Mono.error(badRequest("batch must contain between 1 and " + batch.maxItems() + " employees"));
+                    }
+                    return repository.saveAll(employees).collectList().as(transactionalOperator::transactional);
+                })
+                .flatMap(saved -> ServerResponse.ok()
+                        .varyBy(HttpHeaders.ACCEPT)
+                        .bodyValue(new Employees(saved, null)));
+    }
+
+    /**
+     * Replaces an existing employee identified by path variable {id} with the JSON body.
+     *
+     * <p>By default the entity is loaded, updated and returned with 200. Clients that send
+     * {@code Prefer: return=minimal} get a single {@code UPDATE} statement answered with 204.</p>
+     *
+     * @param request the HTTP request with path variable and updated Employee payload
+     * @return 200 OK with the entity (204 No Content when a minimal return is preferred),
+     * 404 if not found, 412 if If-Match does not match
+     */
+    public Mono<ServerResponse> update(ServerRequest request) {
+        boolean minimal = request.headers().header("Prefer").stream()
+                .anyMatch(value -> value.contains("return=minimal"));
+        return minimal ? applyUpdate(request, true) : updateAndReturn(request);
+    }
+
+    /**
+     * Partially updates an employee: only the fields present (non-null) in the JSON body are written,
+     * in a single {@code UPDATE} statement.
+     *
+     * @param request the HTTP request with path variable and partial Employee payload
+     * @return 204 No Content, 400 if no field is supplied, 404 if not found, 412 if If-Match does not match
+     */
+    public Mono<ServerResponse> patch(ServerRequest request) {
+        return applyUpdate(request, false);
+    }
+
+    /**
+     * Runs the single-statement update shared by PUT and PATCH. With {@code If-Match} the version is
+     * part of the WHERE clause and the new ETag is returned; only when no row matched is a second
+     * query issued to tell 404 from 412.
+     *
+     * @param request the HTTP request
+     * @param replace whether absent fields are cleared (PUT) or left untouched (PATCH)
+     * @return 204 No Content
+     */
+    private Mono<ServerResponse> applyUpdate(ServerRequest request, boolean replace) {
+        long id = parseLong("id", request.pathVariable("id"));
+        Long expectedVersion = ifMatchVersion(request);
+        return request.bodyToMono(Employee.class)
+                .switchIfEmpty(Mono.error(() -> badRequest("request body is required")))
+                .flatMap(changes -> {
+                    List<String> assignments = new ArrayList<>(4);
+                    if (replace || changes.name() != null) {
+                        assignments.add("name = :name");
+                    }
+                    if (replace || changes.email() != null) {
+                        assignments.add("email = :email");
+                    }
+                    if (replace || changes.phone() != null) {
+                        assignments.add("phone = :phone");
+                    }
+                    if (assignments.isEmpty()) {
+                        return Mono.error(badRequest("at least one of name, email or phone must be supplied"));
+                    }
+                    assignments.add("version = version + 1");
+                    String sql = "UPDATE employee SET " + String.join(", ", assignments) + " WHERE id = :id"
+                            + (expectedVersion != null ? " AND version = :version" : "");
+                    DatabaseClient.GenericExecuteSpec statement = databaseClient.sql(sql).bind("id", id);
+                    if (replace || changes.name() != null) {
+                        statement = statement.bind("name", Parameter.fromOrEmpty(changes.name(), String.class));
+                    }
+                    if (replace || changes.email() != null) {
+                        statement = statement.bind("email", Parameter.fromOrEmpty(changes.email(), String.class));
+                    }
+                    if (replace || changes.phone() != null) {
+                        statement = statement.bind("phone", Parameter.fromOrEmpty(changes.phone(), String.class));
+                    }
+                    if (expectedVersion != null) {
+                        statement = statement.bind("version", expectedVersion);
+                    }
+                    return statement.fetch().rowsUpdated();
+                })
+                .flatMap(updated -> {
+                    if (updated > 0) {
+                        return Mono.just(updated);
+                    }
+                    return (expectedVersion != null ? repository.existsById(id) : Mono.just(false))
+                            .flatMap(exists -> Mono.error(exists
+                                    ? new ResponseStatusException(HttpStatus.PRECONDITION_FAILED, MODIFIED)
+                                    : new ResponseStatusException(HttpStatus.NOT_FOUND, NOT_FOUND)));
+                })
+                .flatMap(updated -> {
+                    ServerResponse.HeadersBuilder<?> response = ServerResponse.noContent();
+                    if (expectedVersion != null) {
+                        response.eTag(eTag(expectedVersion + 1));
+                    }
+                    return response.build();
+                });
+    }
+
+    /**
+     * Updates an existing employee by loading it, copying the body fields and saving it back. A
+     * concurrent write between the read and the update fails the version check and is reported as 412.
+     *
+     * @param request the HTTP request with path variable and updated Employee payload
+     * @return 200 OK with the updated entity and its new ETag, 412 if If-Match does not match
+     */
+    private Mono<ServerResponse> updateAndReturn(ServerRequest request) {
+        long id = parseLong("id", request.pathVariable("id"));
+        return request.bodyToMono(Employee.class)
+                .switchIfEmpty(Mono.error(() -> badRequest("request body is required")))
+                .flatMap(changes -> repository.findById(id)
+                        .switchIfEmpty(Mono.error(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, NOT_FOUND)))
+                        .flatMap(original -> {
+                            if (!ifMatchSatisfied(request, original.version())) {
+                                return Mono.error(new ResponseStatusException(HttpStatus.PRECONDITION_FAILED, MODIFIED));
+                            }
+                            return repository.save(new Employee(id, changes.name(), changes.email(), changes.phone(),
+                                    original.version()));
+                        }))
+                .onErrorMap(OptimisticLockingFailureException.class,
+                        e -> new ResponseStatusException(HttpStatus.PRECONDITION_FAILED, MODIFIED))
+                .flatMap(employee -> ServerResponse.ok()
+                        .varyBy(HttpHeaders.ACCEPT)
+                        .eTag(eTag(employee.version()))
+                        .bodyValue(employee));
+    }
+
+    /**
+     * Retrieves employees.
+     *
+     * <p>With {@code after} and/or {@code limit} query parameters a single keyset page is returned,
+     * together with a {@code next} token (also sent as a {@code Link: rel="next"} header) when more
+     * rows may follow. Without them the whole table is streamed as {@code {"employees":[...]}}, row
+     * by row as R2DBC emits them, so memory use does not grow with the table.</p>
+     *
+     * @param request the HTTP request
+     * @return 200 OK with a JSON array wrapper of employees
+     */
+    public Mono<ServerResponse> fetchAll(ServerRequest request) {
+        Optional<String> after = request.queryParam("after");
+        Optional<String> limit = request.queryParam("limit");
+        if (after.isEmpty() && limit.isEmpty()) {
+            return streamAll();
+        }
+        long afterId = after.map(value -> parseLong("after", value)).orElse(0L);
+        long requested = limit.map(value -> parseLong("limit", value)).orElse((long) paging.defaultLimit());
+        if (requested < 1 || requested > paging.maxLimit()) {
+            return Mono.error(badRequest("limit must be between 1 and " + paging.maxLimit()));
+        }
+        int size = (int) requested;
+        return template.select(Employee.class)
+                .matching(Query.query(Criteria.where("id").greaterThan(afterId)).sort(Sort.by("id")).limit(size))
+                .all()
+                .collectList()
+                .flatMap(page -> {
+                    String next = page.size() == size ? String.valueOf(page.getLast().id()) : null;
+                    ServerResponse.BodyBuilder response = ServerResponse.ok().varyBy(HttpHeaders.ACCEPT);
+                    if (next != null) {
+                        String nextUri = UriComponentsBuilder.fromUri(request.uri())
+                                .replaceQueryParam("after", next)
+                                .replaceQueryParam("limit", size)
+                                .toUriString();
+                        response.header(HttpHeaders.LINK, "<" + nextUri + ">; rel=\"next\"");
+                    }
+                    return response.bodyValue(new Employees(page, next));
+                });
+    }
+
+    /**
+     * Retrieves an employee by id. The version is returned as a strong ETag and a matching
+     * {@code If-None-Match} is answered with 304.
+     *
+     * @param request the HTTP request containing the employee id path variable
+     * @return 200 OK with the employee payload, 304 if unchanged, or 404 if not found
+     */
+    public Mono<ServerResponse> fetchById(ServerRequest request) {
+        long id = parseLong("id", request.pathVariable("id"));
+        return repository.findById(id)
+                .switchIfEmpty(Mono.error(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, NOT_FOUND)))
+                .flatMap(employee -> request.checkNotModified(eTag(employee.version()))
+                        .switchIfEmpty(Mono.defer(() -> ServerResponse.ok()
+                                .varyBy(HttpHeaders.ACCEPT)
+                                .eTag(eTag(employee.version()))
+                                .bodyValue(employee))));
+    }
+
+    /**
+     * Streams every employee as {@code {"employees":[...]}}, encoding each row as it arrives.
+     *
+     * @return 200 OK whose body is written row by row
+     */
+    private Mono<ServerResponse> streamAll() {
+        Flux<DataBuffer> rows = template.select(Employee.class)
+                .matching(Query.empty().sort(Sort.by("id")))
+                .all()
+                .index()
+                .map(row -> {
+                    byte[] json = jsonMapper.writeValueAsBytes(row.getT2());
+                    if (row.getT1() == 0) {
+                        return BUFFERS.wrap(json);
+                    }
+                    byte[] separated = new byte[json.length + 1];
+                    separated[0] = ',';
+                    System.arraycopy(json, 0, separated, 1, json.length);
+                    return BUFFERS.wrap(separated);
+                });
+        Flux<DataBuffer> body = Flux.concat(
+                Mono.fromSupplier(() -> BUFFERS.wrap("{\"employees\":[".getBytes(StandardCharsets.UTF_8))),
+                rows,
+                Mono.fromSupplier(() -> BUFFERS.wrap("]}".getBytes(StandardCharsets.UTF_8))));
+        return ServerResponse.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(BodyInserters.fromDataBuffers(body));
+    }
+
+    /**
+     * Formats an entity version as a strong ETag.
+     *
+     * @param version the entity version
+     * @return the quoted entity tag
+     */
+    static String eTag(Long version) {
+        return "\"" + version + "\"";
+    }
+
+    /**
+     * Extracts the version a single-statement update must match from {@code If-Match}.
+     *
+     * @param request the HTTP request
+     * @return the expected version, or null when the header is absent or {@code *}
+     * @throws ResponseStatusException with 400 if the header is not a single strong entity tag
+     */
+    private static Long ifMatchVersion(ServerRequest request) {
+        List<String> ifMatch = request.headers().header(HttpHeaders.IF_MATCH);
+        if (ifMatch.isEmpty()) {
+            return null;
+        }
+        String tag = String.join(",", ifMatch).trim();
+        if (tag.equals("*")) {
+            return null;
+        }
+        if (tag.length() < 3 || !tag.startsWith("\"") || !tag.endsWith("\"")) {
+            throw badRequest("If-Match must be a single strong entity tag");
+        }
+        return parseLong("If-Match", tag.substring(1, tag.length() - 1));
+    }
+
+    /**
+     * Checks an optional {@code If-Match} header against the current version using strong comparison.
+     *
+     * @param request the HTTP request
+     * @param version the current entity version
+     * @return true when the header is absent, is {@code *}, or lists the current ETag
+     */
+    private static boolean ifMatchSatisfied(ServerRequest request, Long version) {
+        List<String> ifMatch = request.headers().header(HttpHeaders.IF_MATCH);
+        if (ifMatch.isEmpty()) {
+            return true;
+        }
+        String current = eTag(version);
+        for (String value : ifMatch) {
+            for (String tag : value.split(",")) {
+                String trimmed = tag.trim();
+                if (trimmed.equals("*") || trimmed.equals(current)) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    private static long parseLong(String name, String value) {
+        try {
+            return Long.parseLong(value);
+        } catch (NumberFormatException e) {
+            throw badRequest(name + " must be a number");
+        }
+    }
+
+    private static ResponseStatusException badRequest(String detail) {
+        return new ResponseStatusException(HttpStatus.BAD_REQUEST, detail);
+    }
+}
@@ -0,0 +1,9 @@
+package com.example.reactive;
+
+import org.springframework.data.repository.reactive.ReactiveCrudRepository;
+
+/**
+ * Reactive repository for {@link Employee} rows.
+ */
+public interface EmployeeRepository extends ReactiveCrudRepository<Employee, Long> {
+}
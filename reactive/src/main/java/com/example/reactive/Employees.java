@@ -0,0 +1,15 @@
+package com.example.reactive;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import java.util.List;
+
+/**
+ * Wrapper used to serialize a collection of employees.
+ *
+ * @param employees the employee items in the response
+ * @param next      token for the next keyset page, passed back as {@code after}; absent on the last page
+ */
+public record Employees(List<Employee> employees,
+                        @JsonInclude(JsonInclude.Include.NON_NULL) String next) {
+}
@@ -0,0 +1,13 @@
+package com.example.reactive;
+
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+/**
+ * Tuning for the paged {@code GET /employee} reads, bound from {@code app.employee.paging} like the WebMvc application.
+ *
+ * @param defaultLimit page size used when a page is requested without {@code limit}
+ * @param maxLimit     largest {@code limit} a client may ask for
+ */
+public record PagingProperties(@DefaultValue("100") int defaultLimit,
+                               @DefaultValue("1000") int maxLimit) {
+}
@@ -0,0 +1,114 @@
+package com.example.reactive;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.context.ApplicationContextInitializer;
+import org.springframework.context.support.GenericApplicationContext;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.r2dbc.core.R2dbcEntityTemplate;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.MediaType;
+import org.springframework.http.ProblemDetail;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.transaction.ReactiveTransactionManager;
+import org.springframework.transaction.reactive.TransactionalOperator;
+import org.springframework.web.reactive.function.server.RouterFunction;
+import org.springframework.web.reactive.function.server.ServerResponse;
+import org.springframework.web.server.ResponseStatusException;
+import reactor.core.publisher.Mono;
+import tools.jackson.databind.json.JsonMapper;
+
+import static org.springframework.web.reactive.function.server.RouterFunctions.route;
+
+/**
+ * Entry point for the reactive variant of the employee API.
+ *
+ * <p>The same {@code /employee} routes and payloads as the WebMvc + JPA application, served by
+ * WebFlux functional routing on Netty with Spring Data R2DBC against H2, so both stacks can be put
+ * under the same load profiles and compared side by side.</p>
+ */
+@SpringBootApplication
+public class ReactiveApplication {
+
+    private static final Logger LOG = LoggerFactory.getLogger(ReactiveApplication.class);
+
+    /**
+     * Boots the Spring application using functional bean registration.
+     *
+     * @param args application arguments
+     */
+    public static void main(String[] args) {
+        SpringApplication app = new SpringApplication(ReactiveApplication.class);
+        app.addInitializers(new FunctionalBeanRegistrar());
+        app.run(args);
+    }
+
+    /**
+     * Registers the employee handler and its router function, as the WebMvc application does.
+     */
+    static class FunctionalBeanRegistrar implements ApplicationContextInitializer<GenericApplicationContext> {
+
+        /**
+         * Programmatically registers beans needed by the application at startup.
+         *
+         * @param context the configurable application context
+         */
+        @Override
+        public void initialize(GenericApplicationContext context) {
+            Binder binder = Binder.get(context.getEnvironment());
+            context.registerBean(PagingProperties.class,
+                    () -> binder.bindOrCreate("app.employee.paging", PagingProperties.class));
+            context.registerBean(BatchProperties.class,
+                    () -> binder.bindOrCreate("app.employee.batch", BatchProperties.class));
+            context.registerBean(EmployeeHandler.class,
+                    () -> new EmployeeHandler(context.getBean(EmployeeRepository.class),
+                            context.getBean(R2dbcEntityTemplate.class),
+                            context.getBean(DatabaseClient.class),
+                            TransactionalOperator.create(context.getBean(ReactiveTransactionManager.class)),
+                            context.getBean(JsonMapper.class),
+                            context.getBean(PagingProperties.class),
+                            context.getBean(BatchProperties.class)));
+            context.registerBean(RouterFunction.class, () -> employeeRoute(context.getBean(EmployeeHandler.class)));
+        }
+    }
+
+    /**
+     * Defines the employee routes with the same paths, status codes and problem details as the WebMvc application.
+     *
+     * @param handler the employee handler
+     * @return router function exposing CRUD routes under /employee
+     */
+    static RouterFunction<ServerResponse> employeeRoute(EmployeeHandler handler) {
+        return route()
+                .POST("/employee", handler::save)
+                .POST("/employee/batch", handler::saveAll)
+                .GET("/employee", handler::fetchAll)
+                .GET("/employee/{id}", handler::fetchById)
+                .PUT("/employee/{id}", handler::update)
+                .PATCH("/employee/{id}", handler::patch)
+                .onError(ResponseStatusException.class, (ex, req) -> {
+                    ResponseStatusException exception = (ResponseStatusException) ex;
+                    return problem(exception.getStatusCode(), exception.getReason());
+                })
+                .onError(DataIntegrityViolationException.class, (ex, req) ->
+                        problem(HttpStatus.CONFLICT, "Employee conflicts with an existing record"))
+                .onError(Exception.class, (ex, req) -> {
+                    // The message may expose SQL, class names or data; keep it in the log only
+                    LOG.error("Unhandled error on {} {}", req.method(), req.path(), ex);
+                    return problem(HttpStatus.INTERNAL_SERVER_ERROR, "An unexpected error occurred");
+                })
+                // Innermost: turns exceptions thrown while a handler assembles its pipeline into errors onError sees
+                .filter((request, next) -> Mono.defer(() -> next.handle(request)))
+                .build();
+    }
+
+    private static Mono<ServerResponse> problem(HttpStatusCode status, String detail) {
+        return ServerResponse.status(status)
+                .contentType(MediaType.APPLICATION_PROBLEM_JSON)
+                .bodyValue(ProblemDetail.forStatusAndDetail(status, detail));
+    }
+}
@@ -0,0 +1,10 @@
+CREATE TABLE IF NOT EXISTS employee (
+    id      BIGINT AUTO_INCREMENT PRIMARY KEY,
+    name    VARCHAR(255),
+    email   VARCHAR(255),
+    phone   VARCHAR(255),
+    version BIGINT NOT NULL
+);
+CREATE UNIQUE INDEX IF NOT EXISTS ux_employee_email ON employee (email);
+CREATE INDEX IF NOT EXISTS ix_employee_name ON employee (name);
+CREATE INDEX IF NOT EXISTS ix_employee_phone ON employee (phone);
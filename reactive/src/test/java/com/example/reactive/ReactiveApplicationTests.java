@@ -0,0 +1,19 @@
+package com.example.reactive;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.context.SpringBootTest;
+
+/**
+ * Basic Spring Boot context load test to ensure the reactive application starts.
+ */
+@SpringBootTest
+class ReactiveApplicationTests {
+
+    /**
+     * Verifies the Spring application context can be loaded successfully.
+     */
+    @Test
+    void contextLoads() {
+    }
+
+}
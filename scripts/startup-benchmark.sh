@@ -0,0 +1,68 @@
+#!/usr/bin/env bash
+# Startup benchmark: launches the extracted app repeatedly per mode and records time-to-first-request
+# (launch until GET /hello answers 200) and the resident set size at that moment.
+#
+# usage: startup-benchmark.sh <app.jar> <app.jsa> [runs] [results.csv]
+# JAVA_BIN selects the java executable (defaults to java on PATH). Normally run via ./gradlew startupBenchmark.
+set -euo pipefail
+
+JAR=${1:?application jar}
+JSA=${2:?CDS archive}
+RUNS=${3:-5}
+RESULTS=${4:-build/reports/startup/results.csv}
+JAVA_BIN=${JAVA_BIN:-java}
+PORT=${STARTUP_PORT:-18080}
+TIMEOUT_SECONDS=60
+
+declare -A MODES=(
+  [jar]=""
+  [aot]="-Dspring.aot.enabled=true"
+  [aot-cds]="-Dspring.aot.enabled=true -XX:SharedArchiveFile=$JSA -Xshare:auto"
+)
+
+now_ms() { date +%s%3N; }
+
+rss_kb() {
+  if [[ -r /proc/$1/status ]]; then
+    awk '/^VmRSS:/ {print $2}' "/proc/$1/status"
+  else
+    ps -o rss= -p "$1" | tr -d ' '
+  fi
+}
+
+mkdir -p "$(dirname "$RESULTS")"
+echo "mode,run,time_to_first_request_ms,rss_kb" > "$RESULTS"
+
+for mode in jar aot aot-cds; do
+  for run in $(seq 1 "$RUNS"); do
+    start=$(now_ms)
+    # shellcheck disable=SC2086
+    "$JAVA_BIN" ${MODES[$mode]} -jar "$JAR" --spring.profiles.active=startup --server.port="$PORT" \
+      > "$(dirname "$RESULTS")/$mode-$run.log" 2>&1 &
+    pid=$!
+    deadline=$((start + TIMEOUT_SECONDS * 1000))
+    until curl -sf -o /dev/null "http://localhost:$PORT/hello"; do
+      if ! kill -0 "$pid" 2>/dev/null || (( $(now_ms) > deadline )); then
+        echo "$mode run $run did not serve a request, see $(dirname "$RESULTS")/$mode-$run.log" >&2
+        kill "$pid" 2>/dev/null || true
+        exit 1
+      fi
+      sleep 0.01
+    done
+    elapsed=$(( $(now_ms) - start ))
+    rss=$(rss_kb "$pid")
+    kill "$pid"
+    wait "$pid" 2>/dev/null || true
+    echo "$mode,$run,$elapsed,$rss" >> "$RESULTS"
+  done
+done
+
+# Median per mode
+median() { sort -n | awk '{ v[NR] = $1 } END { print v[int((NR + 1) / 2)] }'; }
+printf "%-8s %24s %10s\n" mode "time-to-first-request ms" "rss MB"
+for mode in jar aot aot-cds; do
+  ttfr=$(grep "^$mode," "$RESULTS" | cut -d, -f3 | median)
+  rss=$(grep "^$mode," "$RESULTS" | cut -d, -f4 | median)
+  printf "%-8s %24d %10.1f\n" "$mode" "$ttfr" "$(awk -v kb="$rss" 'BEGIN { print kb / 1024 }')"
+done
+echo "raw results: $RESULTS"
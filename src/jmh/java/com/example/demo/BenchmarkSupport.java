@@ -0,0 +1,188 @@
+package com.example.demo;
+
+import com.example.demo.employee.BatchProperties;
+import com.example.demo.employee.CacheProperties;
+import com.example.demo.employee.ChangeFeedProperties;
+import com.example.demo.employee.Employee;
+import com.example.demo.employee.EmployeeBatchWriter;
+import com.example.demo.employee.EmployeeCache;
+import com.example.demo.employee.EmployeeChangeFeed;
+import com.example.demo.employee.EmployeeCursor;
+import com.example.demo.employee.EmployeeExportResource;
+import com.example.demo.employee.EmployeeImportResource;
+import com.example.demo.employee.EmployeeImporter;
+import com.example.demo.employee.EmployeeInterface;
+import com.example.demo.employee.EmployeeResource;
+import com.example.demo.employee.EmployeeSearch;
+import com.example.demo.employee.EmployeeUpdater;
+import com.example.demo.employee.EmployeeView;
+import com.example.demo.employee.ExportProperties;
+import com.example.demo.employee.ImportProperties;
+import com.example.demo.employee.PagingProperties;
+import com.example.demo.util.BulkheadProperties;
+import com.example.demo.util.DbBulkhead;
+import com.example.demo.util.ProblemProperties;
+import com.example.demo.util.ProblemResponses;
+import com.example.demo.util.ResponseBodyCache;
+import com.example.demo.util.ResponseCacheProperties;
+import com.example.demo.util.SingleFlight;
+import com.example.demo.util.SingleFlightProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.springframework.data.domain.Limit;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.converter.json.JacksonJsonHttpMessageConverter;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.web.servlet.function.RouterFunctions;
+import org.springframework.web.servlet.function.ServerRequest;
+import org.springframework.web.servlet.function.ServerResponse;
+import org.springframework.web.util.ServletRequestPathUtils;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.lang.reflect.Proxy;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Optional;
+import java.util.TreeMap;
+
+/**
+ * Fixtures shared by the benchmarks: Jackson setup, an in-memory repository and request factories.
+ */
+final class BenchmarkSupport {
+
+    static final JsonMapper JSON_MAPPER = JsonMapper.builder().build();
+    static final List<HttpMessageConverter<?>> MESSAGE_CONVERTERS =
+            List.of(new JacksonJsonHttpMessageConverter(JSON_MAPPER));
+    static final ServerResponse.Context CONTEXT = () -> MESSAGE_CONVERTERS;
+    private static final SingleFlightProperties SINGLE_FLIGHT = new SingleFlightProperties(true, Duration.ofSeconds(2));
+
+    private BenchmarkSupport() {
+    }
+
+    /**
+     * Builds a list of distinct employees with ids 1..count.
+     *
+     * @param count number of employees
+     * @return the employees
+     */
+    static List<Employee> employees(int count) {
+        List<Employee> employees = new ArrayList<>(count);
+        for (long id = 1; id <= count; id++) {
+            employees.add(new Employee(id, "name_" + id, "email_" + id + "@example.com", "555" + id, 0L));
+        }
+        return employees;
+    }
+
+    /**
+     * Creates a repository answering the read methods used by {@link EmployeeResource} from memory.
+     * Any other repository method fails.
+     *
+     * @param employees the rows to serve
+     * @return an in-memory EmployeeInterface
+     */
+    static EmployeeInterface inMemoryRepository(List<Employee> employees) {
+        NavigableMap<Long, Employee> rows = new TreeMap<>();
+        employees.forEach(employee -> rows.put(employee.getId(), employee));
+        return (EmployeeInterface) Proxy.newProxyInstance(EmployeeInterface.class.getClassLoader(),
+                new Class<?>[]{EmployeeInterface.class}, (proxy, method, args) -> switch (method.getName()) {
+                    case "findById" -> Optional.ofNullable(rows.get((Long) args[0]));
+                    case "findViewById" -> Optional.ofNullable(rows.get((Long) args[0])).map(EmployeeView::of);
+                    case "findVersionById" -> Optional.ofNullable(rows.get((Long) args[0])).map(Employee::getVersion);
+                    case "findAll" -> List.copyOf(rows.values());
+                    case "findViewsByIdGreaterThanOrderByIdAsc" -> rows.tailMap((Long) args[0], false).values().stream()
+                            .limit(((Limit) args[1]).max())
+                            .map(EmployeeView::of)
+                            .toList();
+                    case "hashCode" -> System.identityHashCode(proxy);
+                    case "equals" -> proxy == args[0];
+                    case "toString" -> "InMemoryEmployeeInterface";
+                    default -> throw new UnsupportedOperationException(method.getName());
+                });
+    }
+
+    /**
+     * Creates a resource over the given repository with the lookup cache on or off.
+     *
+     * @param repository   the backing repository
+     * @param cacheEnabled whether lookups by id go through the employee and response body caches
+     * @return the resource
+     */
+    static EmployeeResource employeeResource(EmployeeInterface repository, boolean cacheEnabled) {
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        DbBulkhead bulkhead = new DbBulkhead(10,
+                new BulkheadProperties(10, 200, Duration.ofMillis(250), Duration.ofSeconds(1)), meterRegistry);
+        return new EmployeeResource(repository,
+                new EmployeeCursor(new DriverManagerDataSource(), 500),
+                JSON_MAPPER,
+                new PagingProperties(100, 1000, 500),
+                new EmployeeBatchWriter(null, null, 50),
+                new BatchProperties(50, 10000),
+                new EmployeeCache(repository::findViewById,
+                        new CacheProperties(cacheEnabled, 10_000, Duration.ofMinutes(10), Duration.ofSeconds(5)),
+                        new SingleFlight<>("employee.byId", SINGLE_FLIGHT, meterRegistry),
+                        meterRegistry),
+                bulkhead,
+                new EmployeeUpdater(null, null),
+                new EmployeeSearch(null, null),
+                null,
+                new ResponseBodyCache(Map.of(MediaType.APPLICATION_JSON, JSON_MAPPER),
+                        new ResponseCacheProperties(cacheEnabled, 10_000), meterRegistry),
+                new SingleFlight<>("employee.page", SINGLE_FLIGHT, meterRegistry),
+                changeFeed(),
+                new ProblemResponses(JSON_MAPPER, new ProblemProperties(false, 16)));
+    }
+
+    /**
+     * Creates a change feed with the default replay and lag settings and no subscribers.
+     *
+     * @return the change feed
+     */
+    static EmployeeChangeFeed changeFeed() {
+        return new EmployeeChangeFeed(JSON_MAPPER,
+                new ChangeFeedProperties(65536, 32768, Duration.ofSeconds(15), Duration.ofMinutes(30), 10000),
+                new ProblemResponses(JSON_MAPPER, new ProblemProperties(false, 16)), new SimpleMeterRegistry());
+    }
+
+    /**
+     * Creates an export resource; the 404 benchmark only needs it to build the router.
+     *
+     * @return an export resource without a database
+     */
+    static EmployeeExportResource exportResource() {
+        return new EmployeeExportResource(null, JSON_MAPPER, null, new ExportProperties(1000, 65536, 1000, 1, 2), null);
+    }
+
+    /**
+     * Creates an import resource; the 404 benchmark only needs it to build the router.
+     *
+     * @return an import resource without a database
+     */
+    static EmployeeImportResource importResource() {
+        ImportProperties properties = new ImportProperties(1000, 2, 1000, 100, 65536);
+        return new EmployeeImportResource(new EmployeeImporter(null, null, JSON_MAPPER, properties, ids -> { }),
+                properties);
+    }
+
+    /**
+     * Creates a functional request as the router would hand it to a handler.
+     *
+     * @param method        HTTP method
+     * @param uri           request URI
+     * @param pathVariables matched URI template variables
+     * @param params        query parameters
+     * @return the server request
+     */
+    static ServerRequest serverRequest(String method, String uri, Map<String, String> pathVariables,
+                                       Map<String, String> params) {
+        MockHttpServletRequest request = new MockHttpServletRequest(method, uri);
+        request.addHeader("Accept", "application/json");
+        request.setAttribute(RouterFunctions.URI_TEMPLATE_VARIABLES_ATTRIBUTE, pathVariables);
+        params.forEach(request::setParameter);
+        ServletRequestPathUtils.parseAndCache(request);
+        return ServerRequest.create(request, MESSAGE_CONVERTERS);
+    }
+}
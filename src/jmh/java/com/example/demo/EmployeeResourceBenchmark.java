@@ -0,0 +1,64 @@
+package com.example.demo;
+
+import com.example.demo.employee.EmployeeResource;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.servlet.function.ServerResponse;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Handler cost of {@link EmployeeResource#fetchById} and the paged {@link EmployeeResource#fetchAll}
+ * against an in-memory repository, including writing the JSON body.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class EmployeeResourceBenchmark {
+
+    @Param({"10000"})
+    int rows;
+
+    @Param({"100"})
+    int pageSize;
+
+    @Param({"false", "true"})
+    boolean cacheEnabled;
+
+    private EmployeeResource resource;
+
+    @Setup
+    public void setUp() {
+        resource = BenchmarkSupport.employeeResource(
+                BenchmarkSupport.inMemoryRepository(BenchmarkSupport.employees(rows)), cacheEnabled);
+    }
+
+    @Benchmark
+    public MockHttpServletResponse fetchById() throws Exception {
+        ServerResponse response = resource.fetchById(BenchmarkSupport.serverRequest("GET", "/employee/42",
+                Map.of("id", "42"), Map.of()));
+        return write(response);
+    }
+
+    @Benchmark
+    public MockHttpServletResponse fetchAllPage() throws Exception {
+        ServerResponse response = resource.fetchAll(BenchmarkSupport.serverRequest("GET", "/employee",
+                Map.of(), Map.of("after", "0", "limit", String.valueOf(pageSize))));
+        return write(response);
+    }
+
+    private static MockHttpServletResponse write(ServerResponse response) throws Exception {
+        MockHttpServletResponse servletResponse = new MockHttpServletResponse();
+        response.writeTo(new MockHttpServletRequest(), servletResponse, BenchmarkSupport.CONTEXT);
+        return servletResponse;
+    }
+}
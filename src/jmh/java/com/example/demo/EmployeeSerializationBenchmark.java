@@ -0,0 +1,48 @@
+package com.example.demo;
+
+import com.example.demo.employee.Employee;
+import com.example.demo.employee.EmployeeView;
+import com.example.demo.employee.Employees;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Jackson serialization cost of a single {@link Employee} and of {@link Employees} lists of various sizes.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class EmployeeSerializationBenchmark {
+
+    @Param({"1", "100", "10000"})
+    int size;
+
+    private Employee employee;
+    private Employees employees;
+
+    @Setup
+    public void setUp() {
+        employee = BenchmarkSupport.employees(1).getFirst();
+        employees = Employees.builder()
+                .employees(BenchmarkSupport.employees(size).stream().map(EmployeeView::of).toList())
+                .build();
+    }
+
+    @Benchmark
+    public byte[] employee() {
+        return BenchmarkSupport.JSON_MAPPER.writeValueAsBytes(employee);
+    }
+
+    @Benchmark
+    public byte[] employees() {
+        return BenchmarkSupport.JSON_MAPPER.writeValueAsBytes(employees);
+    }
+}
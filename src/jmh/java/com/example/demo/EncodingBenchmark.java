@@ -0,0 +1,92 @@
+package com.example.demo;
+
+import com.example.demo.employee.EmployeeView;
+import com.example.demo.employee.Employees;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import tools.jackson.databind.ObjectMapper;
+import tools.jackson.dataformat.cbor.CBORMapper;
+import tools.jackson.dataformat.smile.SmileMapper;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Throughput and payload size of {@link Employees} lists per negotiated encoding, with and without gzip.
+ * Payload sizes are printed once per trial since JMH only reports time.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class EncodingBenchmark {
+
+    public enum Encoding {
+        JSON(BenchmarkSupport.JSON_MAPPER),
+        CBOR(CBORMapper.builder().build()),
+        SMILE(SmileMapper.builder().build());
+
+        private final ObjectMapper mapper;
+
+        Encoding(ObjectMapper mapper) {
+            this.mapper = mapper;
+        }
+    }
+
+    @Param({"JSON", "CBOR", "SMILE"})
+    Encoding encoding;
+
+    @Param({"1", "100", "10000"})
+    int size;
+
+    private Employees employees;
+
+    @Setup
+    public void setUp() {
+        employees = Employees.builder()
+                .employees(BenchmarkSupport.employees(size).stream().map(EmployeeView::of).toList())
+                .build();
+        System.out.printf("%n%s size=%d: %d bytes, %d bytes gzipped%n",
+                encoding, size, encode().length, encodeGzip().length);
+    }
+
+    @Benchmark
+    public byte[] encode() {
+        return encoding.mapper.writeValueAsBytes(employees);
+    }
+
+    @Benchmark
+    public byte[] encodeGzip() {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (GZIPOutputStream gzip = new GZIPOutputStream(bytes)) {
+            encoding.mapper.writeValue(gzip, employees);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    @Benchmark
+    public Employees decode(DecodeState state) {
+        return encoding.mapper.readValue(state.payload, Employees.class);
+    }
+
+    @State(Scope.Benchmark)
+    public static class DecodeState {
+
+        byte[] payload;
+
+        @Setup
+        public void setUp(EncodingBenchmark benchmark) {
+            payload = benchmark.encode();
+        }
+    }
+}
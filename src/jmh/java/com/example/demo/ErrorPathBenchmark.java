@@ -0,0 +1,85 @@
+package com.example.demo;
+
+import com.example.demo.util.HttpException;
+import com.example.demo.util.ProblemProperties;
+import com.example.demo.util.ProblemResponses;
+import com.example.demo.util.ResourceNotFoundException;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.servlet.function.HandlerFunction;
+import org.springframework.web.servlet.function.RouterFunction;
+import org.springframework.web.servlet.function.ServerRequest;
+import org.springframework.web.servlet.function.ServerResponse;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of the 404 path: {@code GET /employee/{id}} for a missing id, from routing through the
+ * {@link ResourceNotFoundException} and the router's {@code onError} handler to the written body.
+ *
+ * <p>{@code stackTraces=true} with {@link #legacyNotFound()} reproduces the previous error path (stack
+ * trace capture, concatenated message, {@code Map} body through Jackson); {@code stackTraces=false} with
+ * {@link #notFound()} is the current default of stackless exceptions and pre-encoded problem bodies.</p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class ErrorPathBenchmark {
+
+    @Param({"true", "false"})
+    boolean stackTraces;
+
+    private RouterFunction<ServerResponse> router;
+
+    @Setup
+    public void setUp() {
+        HttpException.captureStackTraces(stackTraces);
+        router = Demo1Application.employeeRoute(BenchmarkSupport.employeeResource(
+                BenchmarkSupport.inMemoryRepository(BenchmarkSupport.employees(100)), false),
+                BenchmarkSupport.exportResource(),
+                BenchmarkSupport.importResource(),
+                BenchmarkSupport.changeFeed(),
+                new ProblemResponses(BenchmarkSupport.JSON_MAPPER, new ProblemProperties(stackTraces, 1024)));
+    }
+
+    @TearDown
+    public void tearDown() {
+        HttpException.captureStackTraces(false);
+    }
+
+    @Benchmark
+    public MockHttpServletResponse notFound() throws Exception {
+        ServerRequest request = BenchmarkSupport.serverRequest("GET", "/employee/404404", Map.of(), Map.of());
+        HandlerFunction<ServerResponse> handler = router.route(request).orElseThrow();
+        MockHttpServletResponse servletResponse = new MockHttpServletResponse();
+        handler.handle(request).writeTo(new MockHttpServletRequest(), servletResponse, BenchmarkSupport.CONTEXT);
+        return servletResponse;
+    }
+
+    @Benchmark
+    public MockHttpServletResponse legacyNotFound() throws Exception {
+        long id = 404404L;
+        ResourceNotFoundException exception = new ResourceNotFoundException("Employee with id " + id + " not found");
+        MockHttpServletResponse servletResponse = new MockHttpServletResponse();
+        ServerResponse.status(HttpStatus.NOT_FOUND)
+                .body(Map.of(Demo1Application.MESSAGE, exception.getMessage()))
+                .writeTo(new MockHttpServletRequest(), servletResponse, BenchmarkSupport.CONTEXT);
+        return servletResponse;
+    }
+
+    @Benchmark
+    public ResourceNotFoundException constructException() {
+        return new ResourceNotFoundException("Employee not found");
+    }
+}
@@ -0,0 +1,94 @@
+package com.example.demo;
+
+import com.example.demo.util.LoggingFilter;
+import com.example.demo.util.LoggingProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.Filter;
+import jakarta.servlet.Servlet;
+import jakarta.servlet.http.HttpServlet;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-request cost of {@link LoggingFilter} in each mode compared with no filter at all.
+ * Log output is disabled (see logback.xml), so this measures capture and hand-off, not appender I/O.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class LoggingFilterBenchmark {
+
+    private static final byte[] REQUEST_BODY =
+            "{\"name\":\"name_1\",\"email\":\"email_1@example.com\",\"phone\":\"5550000001\"}"
+                    .getBytes(StandardCharsets.UTF_8);
+
+    @Param({"NONE", "SYNC", "ASYNC_ALL", "ASYNC_SAMPLED"})
+    String filterMode;
+
+    @Param({"256", "65536"})
+    int responseBytes;
+
+    private Filter filter;
+    private Servlet servlet;
+
+    @Setup
+    public void setUp() {
+        filter = switch (filterMode) {
+            case "NONE" -> null;
+            case "SYNC" -> new LoggingFilter();
+            case "ASYNC_ALL" -> asyncFilter(1.0);
+            case "ASYNC_SAMPLED" -> asyncFilter(0.01);
+            default -> throw new IllegalArgumentException(filterMode);
+        };
+        byte[] body = new byte[responseBytes];
+        Arrays.fill(body, (byte) 'a');
+        servlet = new HttpServlet() {
+            @Override
+            protected void service(HttpServletRequest request, HttpServletResponse response) throws IOException {
+                request.getInputStream().readAllBytes();
+                response.setContentType("application/json");
+                response.getOutputStream().write(body);
+            }
+        };
+    }
+
+    @TearDown
+    public void tearDown() {
+        if (filter != null) {
+            filter.destroy();
+        }
+    }
+
+    @Benchmark
+    public MockHttpServletResponse exchange() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/employee");
+        request.setContentType("application/json");
+        request.setContent(REQUEST_BODY);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        MockFilterChain chain = filter == null ? new MockFilterChain(servlet) : new MockFilterChain(servlet, filter);
+        chain.doFilter(request, response);
+        return response;
+    }
+
+    private static LoggingFilter asyncFilter(double sampleRate) {
+        return new LoggingFilter(new LoggingProperties(LoggingProperties.Mode.ASYNC, sampleRate, 1024, 65536, 8192),
+                new SimpleMeterRegistry());
+    }
+}
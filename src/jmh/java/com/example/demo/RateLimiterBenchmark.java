@@ -0,0 +1,85 @@
+package com.example.demo;
+
+import com.example.demo.util.ProblemProperties;
+import com.example.demo.util.ProblemResponses;
+import com.example.demo.util.RateLimitProperties;
+import com.example.demo.util.RateLimiter;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.web.servlet.function.HandlerFunction;
+import org.springframework.web.servlet.function.RouterFunctions;
+import org.springframework.web.servlet.function.ServerRequest;
+import org.springframework.web.servlet.function.ServerResponse;
+import org.springframework.web.util.pattern.PathPatternParser;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-request cost of the {@link RateLimiter} router filter on its admit path, compared with calling
+ * the handler directly, for one client and for many distinct clients. The limits are set high enough
+ * that no request is rejected, and the handler returns a prebuilt response so the filter is all that
+ * is measured.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class RateLimiterBenchmark {
+
+    @Param({"1", "10000"})
+    int clients;
+
+    @Param({"true", "false"})
+    boolean limited;
+
+    private ServerRequest[] requests;
+    private HandlerFunction<ServerResponse> handler;
+    private RateLimiter rateLimiter;
+
+    @Setup
+    public void setUp() {
+        requests = new ServerRequest[clients];
+        for (int i = 0; i < clients; i++) {
+            ServerRequest request = BenchmarkSupport.serverRequest("GET", "/employee/1", Map.of("id", "1"), Map.of());
+            ((MockHttpServletRequest) request.servletRequest())
+                    .setRemoteAddr("10." + (i >> 16 & 255) + "." + (i >> 8 & 255) + "." + (i & 255));
+            request.attributes().put(RouterFunctions.MATCHING_PATTERN_ATTRIBUTE,
+                    PathPatternParser.defaultInstance.parse("/employee/{id}"));
+            requests[i] = request;
+        }
+        ServerResponse ok = ServerResponse.ok().build();
+        handler = request -> ok;
+        rateLimiter = limited
+                ? new RateLimiter(new RateLimitProperties(true, 1e9, 1_000_000, Map.of(), Duration.ofMinutes(10), 100_000),
+                        new ProblemResponses(BenchmarkSupport.JSON_MAPPER, new ProblemProperties(false, 16)),
+                        new SimpleMeterRegistry())
+                : null;
+    }
+
+    @Benchmark
+    public ServerResponse filter() throws Exception {
+        return handle();
+    }
+
+    @Benchmark
+    @Threads(4)
+    public ServerResponse filterContended() throws Exception {
+        return handle();
+    }
+
+    private ServerResponse handle() throws Exception {
+        ServerRequest request = requests[ThreadLocalRandom.current().nextInt(clients)];
+        return rateLimiter != null ? rateLimiter.filter(request, handler) : handler.handle(request);
+    }
+}
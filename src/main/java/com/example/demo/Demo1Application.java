@@ -1,20 +1,74 @@
 package com.example.demo;
 
+import com.example.demo.employee.BatchProperties;
+import com.example.demo.employee.CacheProperties;
+import com.example.demo.employee.ChangeFeedProperties;
+import com.example.demo.employee.CoalescingProperties;
+import com.example.demo.employee.EmployeeBatchWriter;
+import com.example.demo.employee.EmployeeCache;
+import com.example.demo.employee.EmployeeChangeFeed;
+import com.example.demo.employee.EmployeeCursor;
+import com.example.demo.employee.EmployeeExportResource;
+import com.example.demo.employee.EmployeeImportResource;
+import com.example.demo.employee.EmployeeImporter;
 import com.example.demo.employee.EmployeeInterface;
 import com.example.demo.employee.EmployeeResource;
+import com.example.demo.employee.EmployeeSearch;
+import com.example.demo.employee.EmployeeUpdater;
+import com.example.demo.employee.EmployeeWriteCoalescer;
+import com.example.demo.employee.ExportProperties;
+import com.example.demo.employee.ImportProperties;
+import com.example.demo.employee.PagingProperties;
+import com.example.demo.util.BulkheadProperties;
+import com.example.demo.util.DbBulkhead;
 import com.example.demo.util.HttpException;
 import com.example.demo.util.LoggingFilter;
+import com.example.demo.util.LoggingProperties;
+import com.example.demo.util.ProblemProperties;
+import com.example.demo.util.ProblemResponses;
+import com.example.demo.util.RateLimitProperties;
+import com.example.demo.util.RateLimiter;
+import com.example.demo.util.ReadYourWritesFilter;
+import com.example.demo.util.ReplicaProperties;
+import com.example.demo.util.ReplicaRoutingPostProcessor;
+import com.example.demo.util.ResponseBodyCache;
+import com.example.demo.util.ResponseCacheProperties;
+import com.example.demo.util.RouteMetricsFilter;
+import com.example.demo.util.SingleFlight;
+import com.example.demo.util.SingleFlightProperties;
+import com.example.demo.util.SqlEndpoint;
+import com.example.demo.util.SqlObservabilityPostProcessor;
+import com.example.demo.util.SqlProperties;
+import com.example.demo.util.SqlRequestFilter;
+import com.example.demo.util.SqlStatistics;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.EntityManagerFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.context.properties.bind.Binder;
 import org.springframework.context.ApplicationContextInitializer;
 import org.springframework.context.support.GenericApplicationContext;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
+import org.springframework.orm.jpa.SharedEntityManagerCreator;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.function.SingletonSupplier;
 import org.springframework.web.servlet.function.RouterFunction;
 import org.springframework.web.servlet.function.ServerRequest;
 import org.springframework.web.servlet.function.ServerResponse;
+import tools.jackson.databind.ObjectMapper;
+import tools.jackson.databind.json.JsonMapper;
+import tools.jackson.dataformat.cbor.CBORMapper;
+import tools.jackson.dataformat.smile.SmileMapper;
 
+import javax.sql.DataSource;
+import java.util.LinkedHashMap;
 import java.util.Map;
 
 import static org.springframework.web.servlet.function.RouterFunctions.route;
@@ -34,6 +88,8 @@ public class Demo1Application {
 
 
     public static final String MESSAGE = "message";
+    private static final Logger LOG = LoggerFactory.getLogger(Demo1Application.class);
+    private static final MediaType APPLICATION_SMILE = new MediaType("application", "x-jackson-smile");
 
     /**
      * Boots the Spring application using functional bean registration.
@@ -49,9 +105,16 @@ public class Demo1Application {
     /**
      * Registers functional beans (resources, filters, and router functions).
      * This avoids component scanning and keeps configuration explicit.
+     *
+     * <p>The beans are created by lambdas, which Spring AOT cannot turn into generated code, so the
+     * registrar steps aside while the build runs AOT processing and registers them at runtime instead,
+     * on top of the AOT-generated context.</p>
      */
     static class FunctionalBeanRegistrar implements ApplicationContextInitializer<GenericApplicationContext> {
 
+        // Set by Spring's AOT processors (AbstractAotProcessor.AOT_PROCESSING) for the duration of processAot
+        private static final String AOT_PROCESSING = "spring.aot.processing";
+
         /**
          * Programmatically registers beans needed by the application at startup.
          *
@@ -59,11 +122,158 @@ public class Demo1Application {
          */
         @Override
         public void initialize(GenericApplicationContext context) {
+            if (Boolean.getBoolean(AOT_PROCESSING)) {
+                return;
+            }
+            Binder binder = Binder.get(context.getEnvironment());
+            ProblemProperties problems = binder.bindOrCreate("app.errors", ProblemProperties.class);
+            HttpException.captureStackTraces(problems.stackTraces());
+            context.registerBean(ProblemResponses.class,
+                    () -> new ProblemResponses(context.getBean(JsonMapper.class), problems));
+            context.registerBean(PagingProperties.class,
+                    () -> binder.bindOrCreate("app.employee.paging", PagingProperties.class));
+            context.registerBean(EmployeeCursor.class,
+                    () -> new EmployeeCursor(context.getBean(DataSource.class),
+                            context.getBean(PagingProperties.class).streamFetchSize()));
+            context.registerBean(BatchProperties.class,
+                    () -> binder.bindOrCreate("app.employee.batch", BatchProperties.class));
+            context.registerBean(EmployeeBatchWriter.class,
+                    () -> new EmployeeBatchWriter(
+                            SharedEntityManagerCreator.createSharedEntityManager(context.getBean(EntityManagerFactory.class)),
+                            new TransactionTemplate(context.getBean(PlatformTransactionManager.class)),
+                            context.getBean(BatchProperties.class).size()));
+            context.registerBean(EmployeeUpdater.class,
+                    () -> new EmployeeUpdater(
+                            SharedEntityManagerCreator.createSharedEntityManager(context.getBean(EntityManagerFactory.class)),
+                            new TransactionTemplate(context.getBean(PlatformTransactionManager.class))));
+            context.registerBean(EmployeeSearch.class, () -> {
+                TransactionTemplate readOnly = new TransactionTemplate(context.getBean(PlatformTransactionManager.class));
+                readOnly.setReadOnly(true);
+                return new EmployeeSearch(
+                        SharedEntityManagerCreator.createSharedEntityManager(context.getBean(EntityManagerFactory.class)),
+                        readOnly);
+            });
+            context.registerBean(BulkheadProperties.class,
+                    () -> binder.bindOrCreate("app.db.bulkhead", BulkheadProperties.class));
+            context.registerBean(DbBulkhead.class, () -> {
+                BulkheadProperties bulkhead = context.getBean(BulkheadProperties.class);
+                int maxConcurrent = bulkhead.maxConcurrent() > 0 ? bulkhead.maxConcurrent()
+                        : context.getEnvironment().getProperty("spring.datasource.hikari.maximum-pool-size", Integer.class, 10);
+                return new DbBulkhead(maxConcurrent, bulkhead, context.getBean(MeterRegistry.class));
+            });
+            context.registerBean(CacheProperties.class,
+                    () -> binder.bindOrCreate("app.employee.cache", CacheProperties.class));
+            context.registerBean(SingleFlightProperties.class,
+                    () -> binder.bindOrCreate("app.single-flight", SingleFlightProperties.class));
+            context.registerBean(EmployeeCache.class, () -> {
+                DbBulkhead bulkhead = context.getBean(DbBulkhead.class);
+                EmployeeInterface employeeInterface = context.getBean(EmployeeInterface.class);
+                MeterRegistry meterRegistry = context.getBean(MeterRegistry.class);
+                return new EmployeeCache(id -> bulkhead.call(() -> employeeInterface.findViewById(id)),
+                        context.getBean(CacheProperties.class),
+                        new SingleFlight<>("employee.byId", context.getBean(SingleFlightProperties.class), meterRegistry),
+                        meterRegistry);
+            });
+            context.registerBean(ResponseCacheProperties.class,
+                    () -> binder.bindOrCreate("app.response-cache", ResponseCacheProperties.class));
+            context.registerBean(ResponseBodyCache.class, () -> {
+                // Insertion order is negotiation order: JSON stays the default for */*
+                Map<MediaType, ObjectMapper> encoders = new LinkedHashMap<>();
+                encoders.put(MediaType.APPLICATION_JSON, context.getBean(JsonMapper.class));
+                encoders.put(MediaType.APPLICATION_CBOR, CBORMapper.builder().build());
+                encoders.put(APPLICATION_SMILE, SmileMapper.builder().build());
+                return new ResponseBodyCache(encoders, context.getBean(ResponseCacheProperties.class),
+                        context.getBean(MeterRegistry.class));
+            });
+            CoalescingProperties coalescing = binder.bindOrCreate("app.employee.coalescing", CoalescingProperties.class);
+            if (coalescing.enabled()) {
+                context.registerBean(EmployeeWriteCoalescer.class,
+                        () -> new EmployeeWriteCoalescer(context.getBean(EmployeeBatchWriter.class),
+                                context.getBean(DbBulkhead.class), coalescing,
+                                context.getBean(MeterRegistry.class)));
+            }
+            context.registerBean(ExportProperties.class,
+                    () -> binder.bindOrCreate("app.employee.export", ExportProperties.class));
+            context.registerBean(EmployeeExportResource.class, () -> {
+                ExportProperties export = context.getBean(ExportProperties.class);
+                // A dedicated cursor: exports use their own, larger fetch size
+                return new EmployeeExportResource(new EmployeeCursor(context.getBean(DataSource.class), export.fetchSize()),
+                        context.getBean(JsonMapper.class), context.getBean(DbBulkhead.class), export,
+                        context.getBean(ProblemResponses.class));
+            });
+            context.registerBean(ChangeFeedProperties.class,
+                    () -> binder.bindOrCreate("app.employee.changes", ChangeFeedProperties.class));
+            context.registerBean(EmployeeChangeFeed.class,
+                    () -> new EmployeeChangeFeed(context.getBean(JsonMapper.class),
+                            context.getBean(ChangeFeedProperties.class), context.getBean(ProblemResponses.class),
+                            context.getBean(MeterRegistry.class)));
             context.registerBean(EmployeeResource.class,
-                    () -> new EmployeeResource(context.getBean(EmployeeInterface.class)));
-            context.registerBean(LoggingFilter.class, LoggingFilter::new);
-            context.registerBean(RouterFunction.class, () -> helloRoute()
-                    .andOther(employeeRoute(context.getBean(EmployeeResource.class))));
+                    () -> new EmployeeResource(context.getBean(EmployeeInterface.class),
+                            context.getBean(EmployeeCursor.class),
+                            context.getBean(JsonMapper.class),
+                            context.getBean(PagingProperties.class),
+                            context.getBean(EmployeeBatchWriter.class),
+                            context.getBean(BatchProperties.class),
+                            context.getBean(EmployeeCache.class),
+                            context.getBean(DbBulkhead.class),
+                            context.getBean(EmployeeUpdater.class),
+                            context.getBean(EmployeeSearch.class),
+                            coalescing.enabled() ? context.getBean(EmployeeWriteCoalescer.class) : null,
+                            context.getBean(ResponseBodyCache.class),
+                            new SingleFlight<>("employee.page", context.getBean(SingleFlightProperties.class),
+                                    context.getBean(MeterRegistry.class)),
+                            context.getBean(EmployeeChangeFeed.class),
+                            context.getBean(ProblemResponses.class)));
+            context.registerBean(ImportProperties.class,
+                    () -> binder.bindOrCreate("app.employee.import", ImportProperties.class));
+            context.registerBean(EmployeeImportResource.class, () -> {
+                ImportProperties imports = context.getBean(ImportProperties.class);
+                EmployeeResource employeeResource = context.getBean(EmployeeResource.class);
+                return new EmployeeImportResource(new EmployeeImporter(context.getBean(EmployeeBatchWriter.class),
+                        context.getBean(DbBulkhead.class), context.getBean(JsonMapper.class), imports,
+                        employeeResource::created), imports);
+            });
+            context.registerBean(LoggingProperties.class,
+                    () -> binder.bindOrCreate("app.logging", LoggingProperties.class));
+            context.registerBean(LoggingFilter.class,
+                    () -> new LoggingFilter(context.getBean(LoggingProperties.class),
+                            context.getBean(MeterRegistry.class)));
+            SqlProperties sql = binder.bindOrCreate("app.sql", SqlProperties.class);
+            if (sql.enabled()) {
+                context.registerBean(SqlStatistics.class,
+                        () -> new SqlStatistics(sql, context.getBean(MeterRegistry.class)));
+                context.registerBean(SqlObservabilityPostProcessor.class,
+                        () -> new SqlObservabilityPostProcessor(SingletonSupplier.of(() -> context.getBean(SqlStatistics.class))));
+                context.registerBean(SqlRequestFilter.class,
+                        () -> new SqlRequestFilter(context.getBean(SqlStatistics.class)));
+                context.registerBean(SqlEndpoint.class, () -> new SqlEndpoint(context.getBean(SqlStatistics.class)));
+            }
+            ReplicaProperties replicas = binder.bindOrCreate("app.datasource.replicas", ReplicaProperties.class);
+            if (replicas.enabled()) {
+                context.registerBean(ReplicaRoutingPostProcessor.class,
+                        () -> new ReplicaRoutingPostProcessor(replicas, SingletonSupplier.of(() -> context.getBean(MeterRegistry.class))));
+                context.registerBean(ReadYourWritesFilter.class, () -> new ReadYourWritesFilter(replicas));
+            }
+            context.registerBean(RouteMetricsFilter.class,
+                    () -> new RouteMetricsFilter(context.getBean(MeterRegistry.class)));
+            RateLimitProperties rateLimit = binder.bindOrCreate("app.rate-limit", RateLimitProperties.class);
+            if (rateLimit.enabled()) {
+                context.registerBean(RateLimiter.class, () -> new RateLimiter(rateLimit,
+                        context.getBean(ProblemResponses.class), context.getBean(MeterRegistry.class)));
+            }
+            context.registerBean(RouterFunction.class, () -> {
+                RouterFunction<ServerResponse> employees = employeeRoute(context.getBean(EmployeeResource.class),
+                        context.getBean(EmployeeExportResource.class),
+                        context.getBean(EmployeeImportResource.class),
+                        context.getBean(EmployeeChangeFeed.class),
+                        context.getBean(ProblemResponses.class));
+                if (rateLimit.enabled()) {
+                    employees = employees.filter(context.getBean(RateLimiter.class));
+                }
+                return helloRoute(context.getBean(ResponseBodyCache.class))
+                        .and(employees)
+                        .filter(RouteMetricsFilter.phaseTiming());
+            });
         }
     }
 
@@ -71,25 +281,34 @@ public class Demo1Application {
     /**
      * Defines greeting routes using functional WebMvc.fn routing.
      *
+     * @param responseBodyCache encodes the constant greeting once per supported content type
      * @return router function exposing /hello and /hello/{name}
      */
-    static RouterFunction<ServerResponse> helloRoute() {
+    static RouterFunction<ServerResponse> helloRoute(ResponseBodyCache responseBodyCache) {
+        Map<MediaType, ResponseBodyCache.EncodedBody> greeting = responseBodyCache.encodeAll(Map.of(MESSAGE, "Hello world"));
         return route()
-                .GET("/hello", Demo1Application::greetAnonymous)
+                .GET("/hello", request -> greetAnonymous(request, responseBodyCache, greeting))
                 .GET("/hello/{name}",Demo1Application::greetUser)
                 .build();
     }
 
 
     /**
-     * Returns a generic greeting message.
+     * Returns a generic greeting message, pre-encoded when the request accepts a supported encoding.
      *
-     * @param request the incoming server request
-     * @return 200 OK with a JSON greeting payload
+     * @param request           the incoming server request
+     * @param responseBodyCache negotiates the encoding
+     * @param greeting          the greeting encoded per content type
+     * @return 200 OK with a greeting payload in the negotiated encoding
      */
-    private static ServerResponse greetAnonymous(ServerRequest request) {
+    private static ServerResponse greetAnonymous(ServerRequest request, ResponseBodyCache responseBodyCache,
+                                                 Map<MediaType, ResponseBodyCache.EncodedBody> greeting) {
+        MediaType mediaType = responseBodyCache.negotiate(request);
+        if (mediaType != null) {
+            return ResponseBodyCache.ok(greeting.get(mediaType));
+        }
         return ServerResponse.ok()
-                .contentType(MediaType.APPLICATION_JSON)
+                .varyBy(HttpHeaders.ACCEPT)
                 .body(Map.of(MESSAGE, "Hello world"));
     }
 
@@ -97,35 +316,52 @@ public class Demo1Application {
      * Returns a personalized greeting using the path variable "name".
      *
      * @param request the incoming server request
-     * @return 200 OK with a JSON greeting payload
+     * @return 200 OK with a greeting payload in the negotiated encoding
      */
     private static ServerResponse greetUser(ServerRequest request) {
         return ServerResponse.ok()
-                .contentType(MediaType.APPLICATION_JSON)
+                .varyBy(HttpHeaders.ACCEPT)
                 .body(Map.of(MESSAGE, "Hello " + request.pathVariable("name")));
     }
 
     /**
      * Defines employee-related routes and centralized error handling for resource methods.
+     * Errors are answered with RFC 7807 problem details; unexpected exceptions are logged and
+     * reported with a generic detail rather than their own message.
      *
      * @param employeeResource the employee resource handler
+     * @param exportResource   the bulk export handler
+     * @param importResource   the bulk import and import job handlers
+     * @param changeFeed       the server-sent events feed of employee writes
+     * @param problemResponses builds the problem responses from cached templates
      * @return router function exposing CRUD routes under /employee
      */
-    static RouterFunction<ServerResponse> employeeRoute(EmployeeResource employeeResource) {
+    static RouterFunction<ServerResponse> employeeRoute(EmployeeResource employeeResource,
+                                                         EmployeeExportResource exportResource,
+                                                         EmployeeImportResource importResource,
+                                                         EmployeeChangeFeed changeFeed,
+                                                         ProblemResponses problemResponses) {
         return route()
                 .POST("/employee",employeeResource::save)
+                .POST("/employee/batch", employeeResource::saveAll)
+                .POST("/employee/import", importResource::importEmployees)
                 .GET("/employee",employeeResource::fetchAll)
+                .GET("/employee/search", employeeResource::search)
+                .GET("/employee/export", exportResource::export)
+                .GET("/employee/import", importResource::list)
+                .GET("/employee/import/{jobId}", importResource::status)
+                .GET("/employee/changes", changeFeed::stream)
                 .GET("/employee/{id}",employeeResource::fetchById)
                 .PUT("/employee/{id}",employeeResource::update)
-                .onError(HttpException.class, (ex,req) ->
-                        ServerResponse
-                                .status(((HttpException) ex).getStatus())
-                                .body(Map.of(MESSAGE, ex.getMessage()))
-                ).onError(Exception.class, (ex,req) ->
-                                ServerResponse
-                                        .status(HttpStatus.INTERNAL_SERVER_ERROR)
-                                        .body(Map.of(MESSAGE, ex.getMessage()))
-                )
+                .PATCH("/employee/{id}", employeeResource::patch)
+                .onError(HttpException.class, (ex,req) -> problemResponses.of((HttpException) ex))
+                .onError(DataIntegrityViolationException.class, (ex,req) ->
+                        problemResponses.of(HttpStatus.CONFLICT, "Employee conflicts with an existing record", null))
+                .onError(Exception.class, (ex,req) -> {
+                    // The message may expose SQL, class names or data; keep it in the log only
+                    LOG.error("Unhandled error on {} {}", req.method(), req.path(), ex);
+                    return problemResponses.of(HttpStatus.INTERNAL_SERVER_ERROR, "An unexpected error occurred", null);
+                })
                 .build();
 
     }
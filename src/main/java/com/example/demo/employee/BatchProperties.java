@@ -0,0 +1,13 @@
+package com.example.demo.employee;
+
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+/**
+ * Tuning for bulk employee inserts, bound from {@code app.employee.batch}.
+ *
+ * @param size     number of inserts sent per JDBC batch before the persistence context is flushed and cleared
+ * @param maxItems largest number of employees accepted by one {@code POST /employee/batch}
+ */
+public record BatchProperties(@DefaultValue("50") int size,
+                              @DefaultValue("10000") int maxItems) {
+}
@@ -0,0 +1,19 @@
+package com.example.demo.employee;
+
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+/**
+ * Tuning for the in-process employee lookup cache, bound from {@code app.employee.cache}.
+ *
+ * @param enabled          whether lookups by id go through the cache
+ * @param maximumSize      maximum number of cached ids; admission and eviction follow W-TinyLFU
+ * @param expireAfterWrite lifetime of a cached employee
+ * @param negativeTtl      lifetime of a cached "not found" outcome
+ */
+public record CacheProperties(@DefaultValue("true") boolean enabled,
+                              @DefaultValue("10000") long maximumSize,
+                              @DefaultValue("10m") Duration expireAfterWrite,
+                              @DefaultValue("5s") Duration negativeTtl) {
+}
@@ -0,0 +1,21 @@
+package com.example.demo.employee;
+
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+/**
+ * Settings for the {@code GET /employee/changes} event stream, bound from {@code app.employee.changes}.
+ *
+ * @param replaySize     events kept for {@code Last-Event-ID} resume; older ids get a {@code reset} event
+ * @param maxLag         events a subscriber may fall behind before it is disconnected; keep below {@code replaySize} so it can resume
+ * @param heartbeat      idle time after which a comment line is sent, keeping proxies from closing the stream
+ * @param maxDuration    lifetime of one stream; clients reconnect with {@code Last-Event-ID}, which rebalances them across instances
+ * @param maxSubscribers open streams accepted before new ones are answered with 503
+ */
+public record ChangeFeedProperties(@DefaultValue("65536") int replaySize,
+                                   @DefaultValue("32768") int maxLag,
+                                   @DefaultValue("15s") Duration heartbeat,
+                                   @DefaultValue("30m") Duration maxDuration,
+                                   @DefaultValue("10000") int maxSubscribers) {
+}
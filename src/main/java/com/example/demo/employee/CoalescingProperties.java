@@ -0,0 +1,21 @@
+package com.example.demo.employee;
+
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+/**
+ * Group-commit settings for single employee creates, bound from {@code app.employee.coalescing}.
+ *
+ * @param enabled      whether {@code POST /employee} goes through the write coalescer
+ * @param maxBatchSize maximum number of creates committed together
+ * @param maxDelay     how long the first create of a window waits for others to join it
+ * @param maxQueue     maximum number of creates waiting for a flush before new ones are rejected with 503
+ * @param timeout      how long a request waits for its create to be committed
+ */
+public record CoalescingProperties(@DefaultValue("false") boolean enabled,
+                                   @DefaultValue("256") int maxBatchSize,
+                                   @DefaultValue("2ms") Duration maxDelay,
+                                   @DefaultValue("10000") int maxQueue,
+                                   @DefaultValue("5s") Duration timeout) {
+}
@@ -13,11 +13,20 @@ import lombok.NoArgsConstructor;
 @Data
 @AllArgsConstructor
 @NoArgsConstructor
-@Table(name = "employee")
+@Table(name = "employee", indexes = {
+        @Index(name = "ux_employee_email", columnList = "email", unique = true),
+        @Index(name = "ix_employee_name", columnList = "name"),
+        @Index(name = "ix_employee_phone", columnList = "phone")
+})
 public class Employee {
 
+    /**
+     * Pooled sequence ids: unlike IDENTITY they leave Hibernate JDBC insert batching enabled,
+     * and one sequence call reserves {@code allocationSize} ids.
+     */
     @Id
-    @GeneratedValue( strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "employee_seq")
+    @SequenceGenerator(name = "employee_seq", sequenceName = "employee_seq", allocationSize = 50)
     private Long id;
 
     @Column(name = "name")
@@ -28,4 +37,11 @@ public class Employee {
 
     @Column(name = "phone")
     private String phone;
+
+    /**
+     * Optimistic lock version, exposed to clients as the entity tag.
+     */
+    @Version
+    @Column(name = "version")
+    private Long version;
 }
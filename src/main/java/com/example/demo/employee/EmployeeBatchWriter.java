@@ -0,0 +1,63 @@
+package com.example.demo.employee;
+
+import jakarta.persistence.EntityManager;
+import org.hibernate.Session;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+
+/**
+ * Inserts many employees in one transaction using Hibernate JDBC batching.
+ *
+ * <p>The persistence context is flushed and cleared every {@code batchSize} rows, so each flush
+ * becomes a single JDBC batch and memory use stays bounded regardless of the input size.</p>
+ */
+public class EmployeeBatchWriter {
+
+    private final EntityManager entityManager;
+    private final TransactionTemplate transactionTemplate;
+    private final int batchSize;
+
+    /**
+     * Creates a batch writer.
+     *
+     * @param entityManager       a shared, transaction-bound entity manager
+     * @param transactionTemplate template used to run each call in its own transaction
+     * @param batchSize           number of inserts per JDBC batch
+     */
+    public EmployeeBatchWriter(EntityManager entityManager, TransactionTemplate transactionTemplate, int batchSize) {
+        this.entityManager = entityManager;
+        this.transactionTemplate = transactionTemplate;
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * Persists all employees in a single transaction. Any client supplied id or version is ignored.
+     *
+     * @param employees the employees to insert; their ids are populated on return
+     * @return the same employees, now detached and carrying generated ids
+     * @throws org.springframework.dao.DataIntegrityViolationException if a row violates a constraint, e.g. a duplicate email
+     */
+    public List<Employee> persistAll(List<Employee> employees) {
+        try {
+            return transactionTemplate.execute(status -> {
+                entityManager.unwrap(Session.class).setJdbcBatchSize(batchSize);
+                for (int i = 0; i < employees.size(); i++) {
+                    Employee employee = employees.get(i);
+                    employee.setId(null);
+                    employee.setVersion(null);
+                    entityManager.persist(employee);
+                    if ((i + 1) % batchSize == 0) {
+                        entityManager.flush();
+                        entityManager.clear();
+                    }
+                }
+                entityManager.flush();
+                entityManager.clear();
+                return employees;
+            });
+        } catch (RuntimeException e) {
+            throw PersistenceExceptions.translate(e);
+        }
+    }
+}
@@ -0,0 +1,145 @@
+package com.example.demo.employee;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.example.demo.util.SingleFlight;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+
+import java.util.Collection;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.Function;
+
+/**
+ * Bounded read-through cache in front of {@link EmployeeInterface#findById(Object)}.
+ *
+ * <p>Backed by Caffeine, whose W-TinyLFU policy keeps the hot set of ids resident. Missing ids are
+ * cached as empty for a shorter time so repeated misses do not reach the database. Entries are
+ * immutable {@link EmployeeView}s, safe to share between requests. Hit, miss and eviction counts are
+ * published to Micrometer under the {@code employee} cache name.</p>
+ *
+ * <p>Misses are loaded through a {@link SingleFlight}, so a burst of requests for an uncached id runs
+ * one query, and the loading thread does not hold a cache lock while it waits for the database. A
+ * loaded value is only cached if its id was not written meanwhile, so a slow load cannot overwrite a
+ * newer write with the state it read before.</p>
+ */
+public class EmployeeCache {
+
+    private static final int WRITE_STRIPES = 64;
+
+    private final Function<Long, Optional<EmployeeView>> loader;
+    private final Cache<Long, Optional<EmployeeView>> cache;
+    private final boolean enabled;
+    private final SingleFlight<Long, Optional<EmployeeView>> flights;
+    // Bumped by every write to an id in the stripe; a load only caches if its stripe did not change
+    private final AtomicLongArray writeGenerations = new AtomicLongArray(WRITE_STRIPES);
+
+    /**
+     * Creates the cache and binds its statistics to the meter registry.
+     *
+     * @param loader        loads an employee by id on a miss, typically {@link EmployeeInterface#findViewById(Long)}
+     * @param properties    size, lifetime and enablement settings
+     * @param flights       coalesces concurrent loads of the same id, also when the cache is disabled
+     * @param meterRegistry registry receiving the cache metrics
+     */
+    public EmployeeCache(Function<Long, Optional<EmployeeView>> loader, CacheProperties properties,
+                         SingleFlight<Long, Optional<EmployeeView>> flights, MeterRegistry meterRegistry) {
+        this.loader = loader;
+        this.enabled = properties.enabled();
+        this.flights = flights;
+        long ttl = properties.expireAfterWrite().toNanos();
+        long negativeTtl = properties.negativeTtl().toNanos();
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(properties.maximumSize())
+                .expireAfter(new Expiry<Long, Optional<EmployeeView>>() {
+                    @Override
+                    public long expireAfterCreate(Long id, Optional<EmployeeView> employee, long currentTime) {
+                        return employee.isPresent() ? ttl : negativeTtl;
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(Long id, Optional<EmployeeView> employee, long currentTime,
+                                                  long currentDuration) {
+                        return expireAfterCreate(id, employee, currentTime);
+                    }
+
+                    @Override
+                    public long expireAfterRead(Long id, Optional<EmployeeView> employee, long currentTime,
+                                                long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "employee");
+    }
+
+    /**
+     * Looks up an employee, loading and caching it (or its absence) on a miss.
+     *
+     * @param id the employee id
+     * @return the employee, or empty when no such id exists
+     */
+    public Optional<EmployeeView> findById(Long id) {
+        if (!enabled) {
+            return flights.execute(id, () -> loader.apply(id));
+        }
+        Optional<EmployeeView> cached = cache.getIfPresent(id);
+        if (cached != null) {
+            return cached;
+        }
+        return flights.execute(id, () -> load(id));
+    }
+
+    /**
+     * Refreshes the entry for a freshly written employee, replacing any stale or negative entry.
+     *
+     * @param employee the saved employee; must carry its id
+     */
+    public void put(EmployeeView employee) {
+        written(employee.id());
+        if (enabled) {
+            cache.put(employee.id(), Optional.of(employee));
+        }
+    }
+
+    /**
+     * Drops the entry for the given id.
+     *
+     * @param id the id to invalidate
+     */
+    public void invalidate(Long id) {
+        written(id);
+        cache.invalidate(id);
+    }
+
+    /**
+     * Drops the entries for the given ids.
+     *
+     * @param ids the ids to invalidate
+     */
+    public void invalidateAll(Collection<Long> ids) {
+        ids.forEach(this::written);
+        cache.invalidateAll(ids);
+    }
+
+    private Optional<EmployeeView> load(Long id) {
+        int stripe = stripe(id);
+        long generation = writeGenerations.get(stripe);
+        Optional<EmployeeView> loaded = loader.apply(id);
+        cache.asMap().compute(id, (key, current) ->
+                current == null && writeGenerations.get(stripe) == generation ? loaded : current);
+        return loaded;
+    }
+
+    private void written(Long id) {
+        writeGenerations.incrementAndGet(stripe(id));
+        flights.forget(id);
+    }
+
+    private static int stripe(Long id) {
+        return Long.hashCode(id) & (WRITE_STRIPES - 1);
+    }
+}
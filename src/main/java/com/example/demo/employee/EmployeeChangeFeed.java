@@ -0,0 +1,298 @@
+package com.example.demo.employee;
+
+import com.example.demo.util.LoggingFilter;
+import com.example.demo.util.ProblemResponses;
+import com.example.demo.util.ServiceUnavailableException;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.web.servlet.function.ServerRequest;
+import org.springframework.web.servlet.function.ServerResponse;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Server-Sent Events feed of employee writes at {@code GET /employee/changes}, so downstream services
+ * can follow changes instead of polling {@code GET /employee}.
+ *
+ * <p>Every write is published once into a shared ring buffer as a fully encoded SSE frame; subscribers
+ * keep only a cursor into it, so fan-out costs one buffer copy per subscriber and no per-subscriber
+ * queue or serialization. Each stream is served on its own (virtual) request thread, which parks until
+ * the ring moves past its cursor.</p>
+ *
+ * <p>Event ids are {@code <epoch>-<sequence>}: a random epoch chosen when the feed starts, so ids from a
+ * previous run or another instance never pass for ids of this one, and a per-feed sequence number. A
+ * client reconnecting with {@code Last-Event-ID} is replayed everything after it while that is still in
+ * the ring; otherwise, including after a restart or when it reconnects to another instance, it gets a
+ * {@code reset} event and should re-read {@code GET /employee}. A subscriber that falls more than
+ * {@code maxLag} events behind is disconnected rather than buffered for; a write blocked on a stalled
+ * socket is bounded by the container's write timeout.</p>
+ */
+public class EmployeeChangeFeed implements AutoCloseable {
+
+    private static final String LAST_EVENT_ID = "Last-Event-ID";
+    private static final byte[] HEARTBEAT = ":\n\n".getBytes(StandardCharsets.US_ASCII);
+    private static final Duration RETRY_AFTER = Duration.ofSeconds(5);
+
+    /**
+     * Kind of write, sent as the SSE {@code event} name.
+     */
+    public enum Type {
+        CREATED,
+        UPDATED;
+
+        private final String eventName = name().toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Event payload for writes that did not produce the full employee, e.g. single-statement updates
+     * and imports; clients fetch {@code GET /employee/{id}} when they need the rest.
+     *
+     * @param id      the employee id
+     * @param version the new version, when known
+     */
+    public record EmployeeRef(Long id, @JsonInclude(JsonInclude.Include.NON_NULL) Long version) {
+    }
+
+    private record Frame(long sequence, byte[] bytes) {
+    }
+
+    private final JsonMapper jsonMapper;
+    private final ChangeFeedProperties properties;
+    private final ProblemResponses problemResponses;
+    private final String epoch = Long.toString(new SecureRandom().nextLong() & Long.MAX_VALUE, 36);
+    private final AtomicReferenceArray<Frame> ring;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition published = lock.newCondition();
+    private final AtomicInteger subscribers = new AtomicInteger();
+    private final Counter slowConsumers;
+    // Sequence of the newest frame, 0 before the first; written under the lock after the frame is stored
+    private volatile long head;
+    private volatile boolean closed;
+
+    /**
+     * Creates the feed.
+     *
+     * @param jsonMapper       mapper used to encode event payloads, once per event
+     * @param properties       replay, lag and stream lifetime settings
+     * @param problemResponses renders the 503 once the response body is being written
+     * @param meterRegistry    registry receiving the subscriber gauge and slow consumer counter
+     */
+    public EmployeeChangeFeed(JsonMapper jsonMapper, ChangeFeedProperties properties,
+                              ProblemResponses problemResponses, MeterRegistry meterRegistry) {
+        this.jsonMapper = jsonMapper;
+        this.properties = properties;
+        this.problemResponses = problemResponses;
+        this.ring = new AtomicReferenceArray<>(properties.replaySize());
+        Gauge.builder("employee.changes.subscribers", subscribers, AtomicInteger::get)
+                .description("Open GET /employee/changes streams")
+                .register(meterRegistry);
+        this.slowConsumers = Counter.builder("employee.changes.slow_consumers")
+                .description("Streams disconnected for falling too far behind")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Publishes one event.
+     *
+     * @param type    the kind of write
+     * @param payload the event data, e.g. an {@link EmployeeView} or {@link EmployeeRef}
+     */
+    public void publish(Type type, Object payload) {
+        publishAll(type, List.of(payload));
+    }
+
+    /**
+     * Publishes one event per payload, with consecutive ids.
+     *
+     * @param type     the kind of write
+     * @param payloads the event data, in order
+     */
+    public void publishAll(Type type, List<?> payloads) {
+        if (payloads.isEmpty()) {
+            return;
+        }
+        // Encode outside the lock; only numbering and storing the frames is serialized
+        List<String> data = payloads.stream().map(jsonMapper::writeValueAsString).toList();
+        lock.lock();
+        try {
+            long sequence = head;
+            for (String json : data) {
+                sequence++;
+                String frame = "id: " + epoch + "-" + sequence + "\nevent: " + type.eventName + "\ndata: " + json + "\n\n";
+                ring.set(index(sequence), new Frame(sequence, frame.getBytes(StandardCharsets.UTF_8)));
+            }
+            head = sequence;
+            published.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Opens an event stream, resuming after {@code Last-Event-ID} when given.
+     *
+     * @param serverRequest the HTTP request
+     * @return 200 OK with a {@code text/event-stream} body that lasts until the client disconnects, it falls
+     * too far behind or {@code maxDuration} elapses; 503 when {@code maxSubscribers} streams are already open
+     */
+    public ServerResponse stream(ServerRequest serverRequest) {
+        String lastEventId = serverRequest.headers().header(LAST_EVENT_ID).stream().findFirst().orElse(null);
+        return ServerResponse.ok()
+                .contentType(MediaType.TEXT_EVENT_STREAM)
+                .header(HttpHeaders.CACHE_CONTROL, "no-cache")
+                .build((request, response) -> {
+                    // Reserved atomically, and only once the body is written, so an unwritten response cannot leak it
+                    if (subscribers.incrementAndGet() > properties.maxSubscribers()) {
+                        subscribers.decrementAndGet();
+                        problemResponses.write(new ServiceUnavailableException(
+                                "Too many change feed subscribers, retry later", RETRY_AFTER), response);
+                        return null;
+                    }
+                    try (OutputStream out = LoggingFilter.streamingOutputStream(response)) {
+                        send(out, lastEventId);
+                    } catch (IOException e) {
+                        // The client went away, which is how most streams end
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    } finally {
+                        subscribers.decrementAndGet();
+                    }
+                    return null;
+                });
+    }
+
+    /**
+     * Writes events to one subscriber until it falls behind, the stream expires or the feed closes.
+     *
+     * @param out         the response body
+     * @param lastEventId the id of the last event the client saw, or null to start with the next one
+     * @throws IOException          when the client disconnects
+     * @throws InterruptedException when the serving thread is interrupted
+     */
+    void send(OutputStream out, String lastEventId) throws IOException, InterruptedException {
+        long newest = head;
+        long cursor = newest + 1;
+        if (lastEventId != null) {
+            long seen = sequenceOf(lastEventId);
+            if (seen >= 0 && seen <= newest && seen + 1 > newest - properties.replaySize()) {
+                cursor = seen + 1;
+            } else {
+                String reset = "id: " + epoch + "-" + newest + "\nevent: reset\ndata: {}\n\n";
+                out.write(reset.getBytes(StandardCharsets.US_ASCII));
+            }
+        }
+        // Commits the headers, so the client sees the stream open before the first event
+        out.flush();
+        long deadline = System.nanoTime() + properties.maxDuration().toNanos();
+        long heartbeat = properties.heartbeat().toNanos();
+        while (!closed) {
+            long available = head;
+            if (available >= cursor) {
+                if (available - cursor + 1 > properties.maxLag()) {
+                    slowConsumers.increment();
+                    return;
+                }
+                for (; cursor <= available; cursor++) {
+                    Frame frame = ring.get(index(cursor));
+                    if (frame == null || frame.sequence() != cursor) {
+                        // Overwritten while this subscriber was writing the frames before it
+                        slowConsumers.increment();
+                        return;
+                    }
+                    out.write(frame.bytes());
+                }
+                out.flush();
+                continue;
+            }
+            long remaining = deadline - System.nanoTime();
+            if (remaining <= 0) {
+                return;
+            }
+            if (!awaitAfter(cursor - 1, Math.min(remaining, heartbeat))) {
+                out.write(HEARTBEAT);
+                out.flush();
+            }
+        }
+    }
+
+    /**
+     * Ends all open streams, e.g. on shutdown.
+     */
+    @Override
+    public void close() {
+        closed = true;
+        lock.lock();
+        try {
+            published.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Parks until an event newer than {@code seen} is published, the timeout elapses or the feed closes.
+     *
+     * @param seen  the last sequence already sent
+     * @param nanos the longest time to wait
+     * @return true when a newer event is available
+     * @throws InterruptedException when the serving thread is interrupted
+     */
+    private boolean awaitAfter(long seen, long nanos) throws InterruptedException {
+        lock.lock();
+        try {
+            while (head <= seen && !closed && nanos > 0) {
+                nanos = published.awaitNanos(nanos);
+            }
+            return head > seen;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private int index(long sequence) {
+        return (int) (sequence % ring.length());
+    }
+
+    /**
+     * Extracts the sequence number from an event id issued by this feed.
+     *
+     * @param eventId the {@code Last-Event-ID} sent by the client
+     * @return the sequence, or -1 when the id is malformed or from another epoch
+     */
+    private long sequenceOf(String eventId) {
+        String id = eventId.trim();
+        int separator = id.lastIndexOf('-');
+        if (separator < 0 || !id.substring(0, separator).equals(epoch)) {
+            return -1;
+        }
+        try {
+            return Long.parseLong(id.substring(separator + 1));
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    /**
+     * The epoch prefixing this feed's event ids.
+     *
+     * @return the epoch
+     */
+    String epoch() {
+        return epoch;
+    }
+}
@@ -0,0 +1,50 @@
+package com.example.demo.employee;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+
+import javax.sql.DataSource;
+import java.util.function.Consumer;
+
+/**
+ * Forward-only JDBC cursor over the employee table.
+ *
+ * <p>Rows are read with a fixed fetch size and handed to the caller one at a time, so the
+ * whole table is never materialized in memory nor attached to a persistence context.</p>
+ */
+public class EmployeeCursor {
+
+    private static final String SELECT_ALL = "SELECT id, name, email, phone, version FROM employee ORDER BY id";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Creates a cursor reading from the given datasource.
+     *
+     * @param dataSource the datasource to read from
+     * @param fetchSize  number of rows the driver fetches per round trip
+     */
+    public EmployeeCursor(DataSource dataSource, int fetchSize) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.jdbcTemplate.setFetchSize(fetchSize);
+    }
+
+    /**
+     * Streams every employee, in id order, to the given action. The connection is held until
+     * the last row has been consumed. It is marked read-only before the query, so with replica
+     * routing enabled the scan runs on a replica.
+     *
+     * @param action callback invoked once per row with a read-only view
+     */
+    public void forEach(Consumer<EmployeeView> action) {
+        jdbcTemplate.query(connection -> {
+            connection.setReadOnly(true);
+            return connection.prepareStatement(SELECT_ALL);
+        }, (RowCallbackHandler) rs -> action.accept(new EmployeeView(
+                rs.getLong("id"),
+                rs.getString("name"),
+                rs.getString("email"),
+                rs.getString("phone"),
+                rs.getLong("version"))));
+    }
+}
@@ -0,0 +1,241 @@
+package com.example.demo.employee;
+
+import com.example.demo.util.DbBulkhead;
+import com.example.demo.util.LoggingFilter;
+import com.example.demo.util.NotAcceptableException;
+import com.example.demo.util.ProblemResponses;
+import com.example.demo.util.ServiceUnavailableException;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.util.MimeTypeUtils;
+import org.springframework.web.servlet.function.ServerRequest;
+import org.springframework.web.servlet.function.ServerResponse;
+import tools.jackson.core.JsonGenerator;
+import tools.jackson.databind.ObjectWriter;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Semaphore;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Bulk export of the employee table for downstream analytics.
+ *
+ * <p>{@code GET /employee/export} streams every row as NDJSON ({@code application/x-ndjson}, the default)
+ * or RFC 4180 CSV ({@code text/csv}, CRLF line endings) straight from a forward-only JDBC cursor. Output
+ * goes through a fixed-size buffer and is flushed every {@code flushEveryRows} rows, so memory stays
+ * constant whatever the table size and the client starts receiving data while the query is still running. Clients sending
+ * {@code Accept-Encoding: gzip} get a gzip stream compressed here at a low, fast level.</p>
+ *
+ * <p>An export holds a database bulkhead slot, and with it a pooled connection, for its whole duration.
+ * At most {@code maxConcurrent} exports run at once so they cannot take over the bulkhead from short
+ * requests; further ones are turned away with 503 rather than queued.</p>
+ */
+public class EmployeeExportResource {
+
+    private static final MediaType NDJSON = MediaType.parseMediaType("application/x-ndjson");
+    private static final MediaType CSV = MediaType.parseMediaType("text/csv");
+    private static final List<MediaType> PRODUCIBLE = List.of(NDJSON, CSV);
+    private static final String CSV_HEADER = "id,name,email,phone,version\r\n";
+    private static final Duration RETRY_AFTER = Duration.ofSeconds(10);
+
+    private final EmployeeCursor employeeCursor;
+    private final ObjectWriter ndjsonWriter;
+    private final DbBulkhead dbBulkhead;
+    private final ExportProperties properties;
+    private final ProblemResponses problemResponses;
+    private final Semaphore exports;
+
+    /**
+     * Creates the export resource.
+     *
+     * @param employeeCursor   cursor reading the table with the export fetch size
+     * @param jsonMapper       mapper used for NDJSON lines
+     * @param dbBulkhead       bulkhead whose permit is held for the duration of an export
+     * @param properties       buffering, flushing, compression and concurrency settings
+     * @param problemResponses renders 503 once the response body is being written
+     */
+    public EmployeeExportResource(EmployeeCursor employeeCursor, JsonMapper jsonMapper, DbBulkhead dbBulkhead,
+                                  ExportProperties properties, ProblemResponses problemResponses) {
+        this.employeeCursor = employeeCursor;
+        this.ndjsonWriter = jsonMapper.writer().withRootValueSeparator("\n");
+        this.dbBulkhead = dbBulkhead;
+        this.properties = properties;
+        this.problemResponses = problemResponses;
+        this.exports = new Semaphore(properties.maxConcurrent());
+    }
+
+    /**
+     * Streams the whole employee table in the format picked from {@code Accept}.
+     *
+     * @param serverRequest the HTTP request
+     * @return 200 OK whose body is written row by row, 406 for an unsupported {@code Accept}, or 503 when
+     * {@code maxConcurrent} exports are running or the database is saturated
+     */
+    public ServerResponse export(ServerRequest serverRequest) {
+        MediaType format = negotiate(serverRequest.headers().accept());
+        boolean gzip = acceptsGzip(serverRequest.headers().header(HttpHeaders.ACCEPT_ENCODING));
+        boolean csv = CSV.equals(format);
+        ServerResponse.BodyBuilder response = ServerResponse.ok()
+                .contentType(format)
+                .varyBy(HttpHeaders.ACCEPT, HttpHeaders.ACCEPT_ENCODING)
+                .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment()
+                        .filename(csv ? "employees.csv" : "employees.ndjson").build().toString());
+        if (gzip) {
+            // Set here so the container does not compress the stream a second time
+            response.header(HttpHeaders.CONTENT_ENCODING, "gzip");
+        }
+        return response.build((request, servletResponse) -> {
+            // Slots are taken only once the body is written, so a response that never is cannot leak them
+            if (!exports.tryAcquire()) {
+                problemResponses.write(new ServiceUnavailableException("Too many exports running, retry later",
+                        RETRY_AFTER), servletResponse);
+                return null;
+            }
+            try {
+                DbBulkhead.Permit permit;
+                try {
+                    permit = dbBulkhead.acquire();
+                } catch (ServiceUnavailableException e) {
+                    problemResponses.write(e, servletResponse);
+                    return null;
+                }
+                try (permit; OutputStream out = open(servletResponse, gzip)) {
+                    if (csv) {
+                        writeCsv(out);
+                    } else {
+                        writeNdjson(out);
+                    }
+                } catch (UncheckedIOException e) {
+                    throw e.getCause();
+                }
+            } finally {
+                exports.release();
+            }
+            return null;
+        });
+    }
+
+    private OutputStream open(HttpServletResponse response, boolean gzip) throws IOException {
+        OutputStream target = LoggingFilter.streamingOutputStream(response);
+        if (gzip) {
+            target = new LeveledGzipOutputStream(target, properties.bufferSize(), properties.gzipLevel());
+        }
+        return new BufferedOutputStream(target, properties.bufferSize());
+    }
+
+    private void writeNdjson(OutputStream out) {
+        try (JsonGenerator generator = ndjsonWriter.createGenerator(out)) {
+            long[] rows = {0};
+            employeeCursor.forEach(employee -> {
+                generator.writePOJO(employee);
+                if (++rows[0] % properties.flushEveryRows() == 0) {
+                    generator.flush();
+                }
+            });
+            if (rows[0] > 0) {
+                generator.writeRaw('\n');
+            }
+        }
+    }
+
+    private void writeCsv(OutputStream out) throws IOException {
+        Writer writer = new OutputStreamWriter(out, StandardCharsets.UTF_8);
+        writer.write(CSV_HEADER);
+        long[] rows = {0};
+        employeeCursor.forEach(employee -> {
+            try {
+                writer.write(String.valueOf(employee.id()));
+                writer.write(',');
+                writeCsvField(writer, employee.name());
+                writer.write(',');
+                writeCsvField(writer, employee.email());
+                writer.write(',');
+                writeCsvField(writer, employee.phone());
+                writer.write(',');
+                writer.write(String.valueOf(employee.version()));
+                // RFC 4180 record separator; the importer accepts either line ending
+                writer.write("\r\n");
+                if (++rows[0] % properties.flushEveryRows() == 0) {
+                    writer.flush();
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+        writer.flush();
+    }
+
+    /**
+     * Writes a CSV field, quoting it per RFC 4180 when it contains a separator, quote or line break.
+     *
+     * @param writer the CSV output
+     * @param value  the field value; null is written as an empty field
+     * @throws IOException on I/O errors
+     */
+    private static void writeCsvField(Writer writer, String value) throws IOException {
+        if (value == null) {
+            return;
+        }
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+            writer.write(value);
+            return;
+        }
+        writer.write('"');
+        writer.write(value.replace("\"", "\"\""));
+        writer.write('"');
+    }
+
+    private static MediaType negotiate(List<MediaType> accept) {
+        if (accept.isEmpty()) {
+            return NDJSON;
+        }
+        List<MediaType> accepted = new ArrayList<>(accept);
+        MimeTypeUtils.sortBySpecificity(accepted);
+        for (MediaType acceptable : accepted) {
+            if (acceptable.getQualityValue() == 0) {
+                continue;
+            }
+            for (MediaType producible : PRODUCIBLE) {
+                if (acceptable.isCompatibleWith(producible)) {
+                    return producible;
+                }
+            }
+        }
+        throw new NotAcceptableException("export is available as application/x-ndjson or text/csv");
+    }
+
+    private static boolean acceptsGzip(List<String> acceptEncoding) {
+        for (String header : acceptEncoding) {
+            for (String coding : header.split(",")) {
+                String[] parts = coding.trim().split(";");
+                if (parts[0].trim().equalsIgnoreCase("gzip")) {
+                    return parts.length == 1 || !parts[1].replace(" ", "").matches("q=0(\\.0*)?");
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Gzip stream with a configurable deflate level that flushes compressed data on every flush.
+     */
+    private static final class LeveledGzipOutputStream extends GZIPOutputStream {
+
+        LeveledGzipOutputStream(OutputStream out, int size, int level) throws IOException {
+            super(out, size, true);
+            def.setLevel(level);
+        }
+    }
+}
@@ -0,0 +1,151 @@
+package com.example.demo.employee;
+
+import com.example.demo.util.BadRequestException;
+import com.example.demo.util.ConflictException;
+import com.example.demo.util.HttpException;
+import com.example.demo.util.LoggingFilter;
+import com.example.demo.util.ResourceNotFoundException;
+import com.example.demo.util.UnsupportedMediaTypeException;
+import org.springframework.http.MediaType;
+import org.springframework.web.servlet.function.ServerRequest;
+import org.springframework.web.servlet.function.ServerResponse;
+
+import java.io.IOException;
+import java.net.URI;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Pattern;
+
+/**
+ * Bulk import of employees and the job-status resources reporting on it.
+ *
+ * <p>{@code POST /employee/import} takes an NDJSON ({@code application/x-ndjson}) or CSV
+ * ({@code text/csv}) body, reads it straight from the request stream and answers with the final job
+ * status once every row has been handled. While it runs, progress, throughput and rejected rows can be
+ * polled from {@code GET /employee/import/{jobId}}; {@code GET /employee/import} lists recent jobs.
+ * A client that wants to poll picks the job id itself, with the {@code X-Import-Job-Id} header or the
+ * {@code jobId} query parameter, since the generated one is only returned once the upload is consumed.</p>
+ */
+public class EmployeeImportResource {
+
+    private static final MediaType NDJSON = MediaType.parseMediaType("application/x-ndjson");
+    private static final MediaType CSV = MediaType.parseMediaType("text/csv");
+    private static final String JOB_ID_HEADER = "X-Import-Job-Id";
+    private static final Pattern JOB_ID = Pattern.compile("[A-Za-z0-9_-]{1,64}");
+
+    private final EmployeeImporter importer;
+    private final ImportProperties properties;
+    private final Map<String, ImportJob> jobs = new ConcurrentHashMap<>();
+
+    /**
+     * Creates the import resource.
+     *
+     * @param importer   importer running each upload
+     * @param properties error reporting and job retention settings
+     */
+    public EmployeeImportResource(EmployeeImporter importer, ImportProperties properties) {
+        this.importer = importer;
+        this.properties = properties;
+    }
+
+    /**
+     * Imports the uploaded employees.
+     *
+     * @param serverRequest the HTTP request whose body is the upload
+     * @return 200 OK with the job status and its location, 400 for a CSV without the required header or a
+     * malformed job id, 409 when the requested job id is taken, or 415 for an unsupported content type
+     * @throws IOException          if the upload cannot be read
+     * @throws InterruptedException if interrupted while waiting for the batch writers
+     */
+    public ServerResponse importEmployees(ServerRequest serverRequest) throws IOException, InterruptedException {
+        MediaType contentType = serverRequest.headers().contentType().orElse(null);
+        EmployeeImporter.Format format;
+        if (contentType != null && NDJSON.equalsTypeAndSubtype(contentType)) {
+            format = EmployeeImporter.Format.NDJSON;
+        } else if (contentType != null && CSV.equalsTypeAndSubtype(contentType)) {
+            format = EmployeeImporter.Format.CSV;
+        } else {
+            throw new UnsupportedMediaTypeException("Import accepts application/x-ndjson or text/csv");
+        }
+        // Registered before the body is read, so a client-chosen id can be polled during the upload
+        ImportJob job = start(jobId(serverRequest), contentType.getType() + "/" + contentType.getSubtype());
+        try {
+            importer.run(LoggingFilter.streamingInputStream(serverRequest.servletRequest()), format, job);
+            job.complete();
+        } catch (HttpException e) {
+            job.fail(e.getMessage());
+            throw e;
+        } catch (IOException e) {
+            job.fail("Upload could not be read");
+            throw e;
+        } catch (InterruptedException | RuntimeException e) {
+            job.fail("Import was aborted");
+            throw e;
+        }
+        return ServerResponse.ok()
+                .location(URI.create("/employee/import/" + job.id()))
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(job.status());
+    }
+
+    /**
+     * Lists the running and recently finished jobs, newest first, without their row errors.
+     *
+     * @param serverRequest the HTTP request
+     * @return 200 OK with the job statuses
+     */
+    public ServerResponse list(ServerRequest serverRequest) {
+        List<ImportJob.ImportStatus> statuses = jobs.values().stream()
+                .sorted(Comparator.comparing(ImportJob::startedAt).reversed())
+                .map(ImportJob::summary)
+                .toList();
+        return ServerResponse.ok().contentType(MediaType.APPLICATION_JSON).body(statuses);
+    }
+
+    /**
+     * Reports on one job.
+     *
+     * @param serverRequest the HTTP request carrying the {@code jobId} path variable
+     * @return 200 OK with the job status, or 404 if it is unknown or no longer retained
+     */
+    public ServerResponse status(ServerRequest serverRequest) {
+        ImportJob job = jobs.get(serverRequest.pathVariable("jobId"));
+        if (job == null) {
+            throw new ResourceNotFoundException("Import job not found");
+        }
+        return ServerResponse.ok().contentType(MediaType.APPLICATION_JSON).body(job.status());
+    }
+
+    private static String jobId(ServerRequest serverRequest) {
+        String id = serverRequest.headers().header(JOB_ID_HEADER).stream().findFirst().orElse(null);
+        if (id == null) {
+            id = serverRequest.param("jobId").orElse(null);
+        }
+        if (id == null) {
+            return UUID.randomUUID().toString();
+        }
+        if (!JOB_ID.matcher(id).matches()) {
+            throw new BadRequestException("Import job id must be 1 to 64 letters, digits, '-' or '_'");
+        }
+        return id;
+    }
+
+    private ImportJob start(String id, String format) {
+        ImportJob job = new ImportJob(id, format, properties.maxErrors());
+        if (jobs.putIfAbsent(id, job) != null) {
+            // Constant detail: problem bodies are cached per detail, and the id is client-chosen
+            throw new ConflictException("Import job already exists");
+        }
+        List<ImportJob> finished = jobs.values().stream()
+                .filter(ImportJob::isFinished)
+                .sorted(Comparator.comparing(ImportJob::startedAt))
+                .toList();
+        for (int i = 0; i < finished.size() - properties.retainedJobs(); i++) {
+            jobs.remove(finished.get(i).id());
+        }
+        return job;
+    }
+}
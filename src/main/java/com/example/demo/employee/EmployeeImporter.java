@@ -0,0 +1,416 @@
+package com.example.demo.employee;
+
+import com.example.demo.util.BadRequestException;
+import com.example.demo.util.DbBulkhead;
+import com.example.demo.util.ServiceUnavailableException;
+import org.springframework.dao.DataIntegrityViolationException;
+import tools.jackson.core.JacksonException;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * Streaming bulk import of employees from NDJSON or CSV.
+ *
+ * <p>The upload is parsed incrementally on the calling thread and never held in memory: valid rows
+ * are gathered into batches of {@code batchSize} and each batch is committed in its own transaction by
+ * a writer thread. At most {@code maxInFlightBatches} batches are pending; when all are busy the parser
+ * blocks, stops reading the request and TCP flow control slows the client down. Lines and CSV records
+ * longer than {@code maxLineLength} are rejected without being buffered, so memory use is bounded by
+ * the batch size and line length, whatever the file size.</p>
+ *
+ * <p>Rows failing validation are reported with their line number and skipped. If a batch transaction
+ * fails, for example on a duplicate email, its rows are retried one per transaction so that only the
+ * offending rows are rejected.</p>
+ */
+public class EmployeeImporter {
+
+    private static final int MAX_FIELD_LENGTH = 255;
+    private static final int BULKHEAD_ATTEMPTS = 20;
+
+    private final EmployeeBatchWriter batchWriter;
+    private final DbBulkhead dbBulkhead;
+    private final JsonMapper jsonMapper;
+    private final ImportProperties properties;
+    private final Consumer<List<Long>> onImported;
+
+    /**
+     * Creates the importer.
+     *
+     * @param batchWriter writer committing each batch
+     * @param dbBulkhead  bulkhead each batch transaction goes through
+     * @param jsonMapper  mapper parsing NDJSON lines
+     * @param properties  batch, backpressure and error reporting settings
+     * @param onImported  called with the ids of every committed batch, e.g. to refresh caches
+     */
+    public EmployeeImporter(EmployeeBatchWriter batchWriter, DbBulkhead dbBulkhead, JsonMapper jsonMapper,
+                            ImportProperties properties, Consumer<List<Long>> onImported) {
+        this.batchWriter = batchWriter;
+        this.dbBulkhead = dbBulkhead;
+        this.jsonMapper = jsonMapper;
+        this.properties = properties;
+        this.onImported = onImported;
+    }
+
+    /**
+     * Imports every row of the upload and returns once all batches have been committed.
+     *
+     * @param input  the request body
+     * @param format the upload format
+     * @param job    receives progress and row errors
+     * @throws IOException          if the upload cannot be read
+     * @throws InterruptedException if interrupted while waiting for a free batch slot
+     * @throws BadRequestException  if a CSV upload lacks the required header columns
+     */
+    public void run(InputStream input, Format format, ImportJob job) throws IOException, InterruptedException {
+        Semaphore inFlight = new Semaphore(properties.maxInFlightBatches());
+        try (ExecutorService writers = Executors.newVirtualThreadPerTaskExecutor();
+             BufferedReader reader = new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8))) {
+            RowReader rows = format == Format.CSV ? new CsvRowReader(reader, properties.maxLineLength())
+                    : new NdjsonRowReader(reader);
+            List<ImportRow> batch = new ArrayList<>(properties.batchSize());
+            ImportRow row;
+            while ((row = nextValidRow(rows, job)) != null) {
+                batch.add(row);
+                if (batch.size() == properties.batchSize()) {
+                    submit(writers, inFlight, batch, job);
+                    batch = new ArrayList<>(properties.batchSize());
+                }
+            }
+            if (!batch.isEmpty()) {
+                submit(writers, inFlight, batch, job);
+            }
+        }
+        // Closing the executor waited for the last batches
+    }
+
+    private ImportRow nextValidRow(RowReader rows, ImportJob job) throws IOException {
+        while (true) {
+            ImportRow row;
+            try {
+                row = rows.next();
+            } catch (RowException e) {
+                job.rowRead();
+                job.rejected(e.line, e.getMessage());
+                continue;
+            }
+            if (row == null) {
+                return null;
+            }
+            job.rowRead();
+            String problem = validate(row.employee());
+            if (problem == null) {
+                return row;
+            }
+            job.rejected(row.line(), problem);
+        }
+    }
+
+    private void submit(ExecutorService writers, Semaphore inFlight, List<ImportRow> batch, ImportJob job)
+            throws InterruptedException {
+        inFlight.acquire();
+        writers.execute(() -> {
+            try {
+                write(batch, job);
+            } finally {
+                inFlight.release();
+            }
+        });
+    }
+
+    private void write(List<ImportRow> batch, ImportJob job) {
+        try {
+            List<Employee> persisted = withBulkhead(
+                    () -> batchWriter.persistAll(batch.stream().map(ImportRow::employee).toList()));
+            job.imported(persisted.size());
+            onImported.accept(persisted.stream().map(Employee::getId).toList());
+        } catch (RuntimeException batchFailure) {
+            for (ImportRow row : batch) {
+                try {
+                    List<Employee> persisted = withBulkhead(() -> batchWriter.persistAll(List.of(row.employee())));
+                    job.imported(1);
+                    onImported.accept(persisted.stream().map(Employee::getId).toList());
+                } catch (DataIntegrityViolationException e) {
+                    job.rejected(row.line(), "conflicts with an existing employee");
+                } catch (RuntimeException e) {
+                    job.rejected(row.line(), "could not be inserted");
+                }
+            }
+        }
+    }
+
+    /**
+     * Runs a write through the bulkhead, waiting out saturation instead of failing the rows:
+     * an import is a background load and should yield to interactive traffic, not be rejected by it.
+     */
+    private <T> T withBulkhead(Supplier<T> write) {
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return dbBulkhead.call(write);
+            } catch (ServiceUnavailableException e) {
+                if (attempt == BULKHEAD_ATTEMPTS) {
+                    throw e;
+                }
+                try {
+                    Thread.sleep(e.getRetryAfter());
+                } catch (InterruptedException interrupted) {
+                    Thread.currentThread().interrupt();
+                    throw e;
+                }
+            }
+        }
+    }
+
+    private static String validate(Employee employee) {
+        if (employee.getName() == null || employee.getName().isBlank()) {
+            return "name is required";
+        }
+        if (employee.getEmail() == null || employee.getEmail().isBlank()) {
+            return "email is required";
+        }
+        if (employee.getEmail().indexOf('@') < 1) {
+            return "email is invalid";
+        }
+        if (employee.getName().length() > MAX_FIELD_LENGTH || employee.getEmail().length() > MAX_FIELD_LENGTH
+                || (employee.getPhone() != null && employee.getPhone().length() > MAX_FIELD_LENGTH)) {
+            return "fields must not exceed " + MAX_FIELD_LENGTH + " characters";
+        }
+        return null;
+    }
+
+    /**
+     * Supported upload formats.
+     */
+    public enum Format {
+        NDJSON,
+        CSV
+    }
+
+    /**
+     * A parsed row and where it came from.
+     *
+     * @param line     1-based line or record number
+     * @param employee the employee to insert
+     */
+    private record ImportRow(long line, Employee employee) {
+    }
+
+    /**
+     * A row that could not be parsed.
+     */
+    private static final class RowException extends Exception {
+
+        private final long line;
+
+        RowException(long line, String message) {
+            super(message, null, false, false);
+            this.line = line;
+        }
+    }
+
+    /**
+     * Reads one row at a time from the upload.
+     */
+    private interface RowReader {
+
+        /**
+         * Reads the next row.
+         *
+         * @return the row, or null at the end of the upload
+         * @throws IOException  if the upload cannot be read
+         * @throws RowException if the row cannot be parsed; reading may continue with the next row
+         */
+        ImportRow next() throws IOException, RowException;
+    }
+
+    /**
+     * One JSON object per line; blank lines are skipped.
+     */
+    private final class NdjsonRowReader implements RowReader {
+
+        private final BufferedReader reader;
+        private final StringBuilder buffer = new StringBuilder();
+        private long line;
+
+        NdjsonRowReader(BufferedReader reader) {
+            this.reader = reader;
+        }
+
+        @Override
+        public ImportRow next() throws IOException, RowException {
+            String text;
+            do {
+                text = readLine();
+                if (text == null) {
+                    return null;
+                }
+            } while (text.isBlank());
+            try {
+                Employee employee = jsonMapper.readValue(text, Employee.class);
+                return new ImportRow(line, new Employee(null, employee.getName(), employee.getEmail(),
+                        employee.getPhone(), null));
+            } catch (JacksonException e) {
+                throw new RowException(line, "malformed JSON");
+            }
+        }
+
+        /**
+         * Reads one line, unlike {@link BufferedReader#readLine()} without buffering more than
+         * {@code maxLineLength} characters of it.
+         *
+         * @return the line without its terminator, or null at the end of the upload
+         * @throws IOException  if the upload cannot be read
+         * @throws RowException if the line is too long; it has been consumed, so reading may continue
+         */
+        private String readLine() throws IOException, RowException {
+            buffer.setLength(0);
+            boolean read = false;
+            boolean tooLong = false;
+            int c;
+            while ((c = reader.read()) != -1 && c != '\n') {
+                read = true;
+                if (buffer.length() < properties.maxLineLength()) {
+                    buffer.append((char) c);
+                } else {
+                    tooLong = true;
+                }
+            }
+            if (!read && c == -1) {
+                return null;
+            }
+            line++;
+            if (tooLong) {
+                throw new RowException(line, "line exceeds " + properties.maxLineLength() + " characters");
+            }
+            return buffer.toString();
+        }
+    }
+
+    /**
+     * RFC 4180 CSV with a header row naming the {@code name}, {@code email} and optional {@code phone}
+     * columns, in any order; other columns are ignored. Quoted fields may contain separators, quotes and
+     * line breaks. A record longer than {@code maxLength} characters, e.g. one opened by an unterminated
+     * quote, is rejected and reading resumes after the next line break.
+     */
+    private static final class CsvRowReader implements RowReader {
+
+        private final BufferedReader reader;
+        private final int maxLength;
+        private final StringBuilder field = new StringBuilder();
+        private long record;
+        private int nameColumn = -1;
+        private int emailColumn = -1;
+        private int phoneColumn = -1;
+
+        CsvRowReader(BufferedReader reader, int maxLength) throws IOException {
+            this.reader = reader;
+            this.maxLength = maxLength;
+            List<String> header;
+            try {
+                header = readRecord();
+            } catch (RowException e) {
+                throw new BadRequestException("CSV header exceeds " + maxLength + " characters");
+            }
+            if (header != null) {
+                for (int i = 0; i < header.size(); i++) {
+                    switch (header.get(i).trim().toLowerCase(Locale.ROOT)) {
+                        case "name" -> nameColumn = i;
+                        case "email" -> emailColumn = i;
+                        case "phone" -> phoneColumn = i;
+                        default -> {
+                            // ignored, e.g. id and version from an export
+                        }
+                    }
+                }
+            }
+            if (nameColumn < 0 || emailColumn < 0) {
+                throw new BadRequestException("CSV header must name the name and email columns");
+            }
+        }
+
+        @Override
+        public ImportRow next() throws IOException, RowException {
+            List<String> fields;
+            do {
+                fields = readRecord();
+                if (fields == null) {
+                    return null;
+                }
+            } while (fields.size() == 1 && fields.getFirst().isEmpty());
+            if (fields.size() <= Math.max(nameColumn, emailColumn)) {
+                throw new RowException(record, "expected at least " + (Math.max(nameColumn, emailColumn) + 1) + " fields");
+            }
+            String phone = phoneColumn >= 0 && phoneColumn < fields.size() && !fields.get(phoneColumn).isEmpty()
+                    ? fields.get(phoneColumn) : null;
+            return new ImportRow(record, new Employee(null, fields.get(nameColumn), fields.get(emailColumn), phone, null));
+        }
+
+        /**
+         * Reads one record, which spans several lines when a quoted field contains line breaks.
+         *
+         * @return the fields, or null at the end of the upload
+         * @throws IOException  if the upload cannot be read
+         * @throws RowException if the record is too long; the rest of its line has been skipped
+         */
+        private List<String> readRecord() throws IOException, RowException {
+            List<String> fields = new ArrayList<>();
+            field.setLength(0);
+            boolean quoted = false;
+            boolean read = false;
+            int length = 0;
+            int c;
+            while ((c = reader.read()) != -1) {
+                read = true;
+                if (++length > maxLength) {
+                    // Quoting is no longer trusted, so an unterminated quote cannot swallow the rest of the upload
+                    while (c != -1 && c != '\n') {
+                        c = reader.read();
+                    }
+                    record++;
+                    field.setLength(0);
+                    throw new RowException(record, "record exceeds " + maxLength + " characters");
+                }
+                if (quoted) {
+                    if (c != '"') {
+                        field.append((char) c);
+                        continue;
+                    }
+                    reader.mark(1);
+                    if (reader.read() == '"') {
+                        field.append('"');
+                    } else {
+                        reader.reset();
+                        quoted = false;
+                    }
+                } else if (c == '"' && field.isEmpty()) {
+                    quoted = true;
+                } else if (c == ',') {
+                    fields.add(field.toString());
+                    field.setLength(0);
+                } else if (c == '\n') {
+                    break;
+                } else if (c != '\r') {
+                    field.append((char) c);
+                }
+            }
+            if (!read) {
+                return null;
+            }
+            record++;
+            fields.add(field.toString());
+            return fields;
+        }
+    }
+}
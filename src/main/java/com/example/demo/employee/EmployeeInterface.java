@@ -1,10 +1,17 @@
 package com.example.demo.employee;
 
 import io.hypersistence.utils.spring.repository.BaseJpaRepository;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.data.repository.PagingAndSortingRepository;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
+import java.util.Optional;
 
 /**
  * Repository interface for Employee entities.
@@ -20,4 +27,36 @@ public interface EmployeeInterface extends  BaseJpaRepository<Employee, Long> ,
      */
     @Query(nativeQuery = true , value = "SELECT  * FROM employee")
     List<Employee> findAll();
+
+    /**
+     * Returns the read-only view of an employee, without loading a managed entity.
+     *
+     * @param id the employee id
+     * @return the view, or empty when no such employee exists
+     */
+    @Transactional(readOnly = true)
+    @QueryHints({@QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_FLUSH_MODE, value = "MANUAL")})
+    Optional<EmployeeView> findViewById(Long id);
+
+    /**
+     * Returns the next keyset page as read-only views: employees with an id greater than {@code after}, in id order.
+     *
+     * @param after exclusive lower bound on the id (the last id of the previous page)
+     * @param limit maximum number of rows to return
+     * @return up to {@code limit} views following {@code after}
+     */
+    @Transactional(readOnly = true)
+    @QueryHints({@QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_FLUSH_MODE, value = "MANUAL")})
+    List<EmployeeView> findViewsByIdGreaterThanOrderByIdAsc(long after, Limit limit);
+
+    /**
+     * Returns only the version of an employee, for cheap conditional request checks.
+     *
+     * @param id the employee id
+     * @return the current version, or empty when no such employee exists
+     */
+    @Query("SELECT e.version FROM Employee e WHERE e.id = :id")
+    Optional<Long> findVersionById(@Param("id") Long id);
 }
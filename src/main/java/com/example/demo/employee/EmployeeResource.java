@@ -1,88 +1,512 @@
 package com.example.demo.employee;
 
+import com.example.demo.util.BadRequestException;
+import com.example.demo.util.DbBulkhead;
+import com.example.demo.util.LoggingFilter;
+import com.example.demo.util.PreconditionFailedException;
+import com.example.demo.util.ProblemResponses;
 import com.example.demo.util.ResourceNotFoundException;
+import com.example.demo.util.ResponseBodyCache;
+import com.example.demo.util.ServiceUnavailableException;
+import com.example.demo.util.SingleFlight;
 import jakarta.servlet.ServletException;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Sort;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.web.servlet.function.ServerRequest;
 import org.springframework.web.servlet.function.ServerResponse;
+import org.springframework.web.util.UriComponentsBuilder;
+import tools.jackson.core.JsonGenerator;
+import tools.jackson.databind.json.JsonMapper;
 
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Optional;
+import java.util.Set;
 
 
 /**
  * HTTP resource handler for Employee operations used by functional routes.
  * Provides CRUD-like endpoints backed by a Spring Data JPA repository.
+ *
+ * <p>Read paths return immutable {@link EmployeeView} projections from read-only queries rather
+ * than managed entities.</p>
+ *
+ * <p>Response bodies are content negotiated from {@code Accept}: JSON by default, or CBOR
+ * ({@code application/cbor}) and Smile ({@code application/x-jackson-smile}) for clients that want
+ * compact binary payloads. The unpaged stream of {@code GET /employee} is always JSON.</p>
+ *
+ * <p>Every committed create and update is published to the {@link EmployeeChangeFeed}.</p>
  */
 public class EmployeeResource {
 
+    private static final String BY_ID_ROUTE = "employee";
+    // Constant so the 404 problem body is served from its template; the client already knows the id
+    private static final String NOT_FOUND = "Employee not found";
+    private static final Set<String> SORTABLE = Set.of("id", "name", "email", "phone");
+
     private final EmployeeInterface employeeInterface;
+    private final EmployeeCursor employeeCursor;
+    private final JsonMapper jsonMapper;
+    private final PagingProperties paging;
+    private final EmployeeBatchWriter employeeBatchWriter;
+    private final BatchProperties batch;
+    private final EmployeeCache employeeCache;
+    private final DbBulkhead dbBulkhead;
+    private final EmployeeUpdater employeeUpdater;
+    private final EmployeeSearch employeeSearch;
+    private final EmployeeWriteCoalescer writeCoalescer;
+    private final ResponseBodyCache responseBodyCache;
+    private final SingleFlight<PageKey, List<EmployeeView>> pageFlights;
+    private final EmployeeChangeFeed changeFeed;
+    private final ProblemResponses problemResponses;
 
-    public EmployeeResource(EmployeeInterface employeeInterface) {
+    public EmployeeResource(EmployeeInterface employeeInterface, EmployeeCursor employeeCursor,
+                            JsonMapper jsonMapper, PagingProperties paging,
+                            EmployeeBatchWriter employeeBatchWriter, BatchProperties batch,
+                            EmployeeCache employeeCache, DbBulkhead dbBulkhead,
+                            EmployeeUpdater employeeUpdater, EmployeeSearch employeeSearch,
+                            EmployeeWriteCoalescer writeCoalescer, ResponseBodyCache responseBodyCache,
+                            SingleFlight<PageKey, List<EmployeeView>> pageFlights,
+                            EmployeeChangeFeed changeFeed, ProblemResponses problemResponses) {
         this.employeeInterface = employeeInterface;
+        this.employeeCursor = employeeCursor;
+        this.jsonMapper = jsonMapper;
+        this.paging = paging;
+        this.employeeBatchWriter = employeeBatchWriter;
+        this.batch = batch;
+        this.employeeCache = employeeCache;
+        this.dbBulkhead = dbBulkhead;
+        this.employeeUpdater = employeeUpdater;
+        this.employeeSearch = employeeSearch;
+        this.writeCoalescer = writeCoalescer;
+        this.responseBodyCache = responseBodyCache;
+        this.pageFlights = pageFlights;
+        this.changeFeed = changeFeed;
+        this.problemResponses = problemResponses;
     }
 
     /**
-     * Persists a new employee from the JSON body.
+     * Persists a new employee from the JSON body. When write coalescing is enabled the insert is
+     * committed together with other concurrent creates, but the response is still sent only once
+     * this employee's row has been committed.
      *
      * @param serverRequest the HTTP request containing an Employee payload
-     * @return 200 OK with the persisted entity
+     * @return 200 OK with the persisted entity and its ETag
      * @throws ServletException if the request body cannot be parsed
      * @throws IOException      on I/O errors
      */
     public ServerResponse save(ServerRequest serverRequest) throws ServletException, IOException {
-        Employee employee = serverRequest.body(Employee.class);
+        Employee body = serverRequest.body(Employee.class);
+        body.setVersion(null);
+        EmployeeView employee = EmployeeView.of(writeCoalescer != null
+                ? writeCoalescer.save(body)
+                : dbBulkhead.call(() -> employeeInterface.persist(body)));
+        employeeCache.put(employee);
+        responseBodyCache.evict(BY_ID_ROUTE, employee.id());
+        pageFlights.forgetAll();
+        changeFeed.publish(EmployeeChangeFeed.Type.CREATED, employee);
         return ServerResponse.ok()
-                .contentType(MediaType.APPLICATION_JSON)
-                .body(employeeInterface.persist(employee));
+                .varyBy(HttpHeaders.ACCEPT)
+                .eTag(eTag(employee.version()))
+                .body(employee);
     }
 
     /**
-     * Updates an existing employee identified by path variable {id} using data from the JSON body.
+     * Persists a JSON array of new employees in one transaction using JDBC batch inserts.
+     *
+     * @param serverRequest the HTTP request containing an array of Employee payloads
+     * @return 200 OK with the persisted employees and their generated ids
+     * @throws ServletException if the request body cannot be parsed
+     * @throws IOException      on I/O errors
+     */
+    public ServerResponse saveAll(ServerRequest serverRequest) throws ServletException, IOException {
+        List<Employee> employees = serverRequest.body(new ParameterizedTypeReference<List<Employee>>() { });
+        if (employees.isEmpty() || employees.size() > batch.maxItems()) {
+            throw new BadRequestException("batch must contain between 1 and " + batch.maxItems() + " employees");
+        }
+        List<EmployeeView> persisted = dbBulkhead.call(() -> employeeBatchWriter.persistAll(employees))
+                .stream().map(EmployeeView::of).toList();
+        evictCreated(persisted.stream().map(EmployeeView::id).toList());
+        changeFeed.publishAll(EmployeeChangeFeed.Type.CREATED, persisted);
+        Employees saved = Employees.builder().employees(persisted).build();
+        return ServerResponse.ok()
+                .varyBy(HttpHeaders.ACCEPT)
+                .body(saved);
+    }
+
+    /**
+     * Replaces an existing employee identified by path variable {id} with the JSON body.
+     *
+     * <p>By default the entity is loaded, updated and returned with 200. Clients that do not need the
+     * body can send {@code Prefer: return=minimal} to get a single {@code UPDATE} statement without
+     * loading the entity, answered with 204.</p>
      *
      * @param serverRequest the HTTP request with path variable and updated Employee payload
-     * @return 200 OK with the updated entity
+     * @return 200 OK with the entity (204 No Content when a minimal return is preferred),
+     * 404 if not found, 412 if If-Match does not match
      * @throws ServletException if the request body cannot be parsed
      * @throws IOException      on I/O errors
      */
     public ServerResponse update(ServerRequest serverRequest) throws ServletException, IOException {
-        Employee originalEmployee = employeeInterface.findById(Long.valueOf(serverRequest.pathVariable("id")))
-                .orElseThrow(()->new ResourceNotFoundException("Employee not found"));
+        boolean minimal = serverRequest.headers().header("Prefer").stream()
+                .anyMatch(value -> value.contains("return=minimal"));
+        return minimal ? applyUpdate(serverRequest, true) : updateAndReturn(serverRequest);
+    }
+
+    /**
+     * Partially updates an employee: only the fields present (non-null) in the JSON body are written,
+     * in a single {@code UPDATE} statement without loading the entity.
+     *
+     * @param serverRequest the HTTP request with path variable and partial Employee payload
+     * @return 204 No Content, 400 if no field is supplied, 404 if not found, 412 if If-Match does not match
+     * @throws ServletException if the request body cannot be parsed
+     * @throws IOException      on I/O errors
+     */
+    public ServerResponse patch(ServerRequest serverRequest) throws ServletException, IOException {
+        return applyUpdate(serverRequest, false);
+    }
+
+    /**
+     * Runs the single-statement update shared by PUT and PATCH. With {@code If-Match} the version is
+     * part of the WHERE clause and the new ETag is returned; only when no row matched is a second,
+     * version-only query issued to tell 404 from 412.
+     *
+     * @param serverRequest the HTTP request
+     * @param replace       whether absent fields are cleared (PUT) or left untouched (PATCH)
+     * @return 204 No Content
+     * @throws ServletException if the request body cannot be parsed
+     * @throws IOException      on I/O errors
+     */
+    private ServerResponse applyUpdate(ServerRequest serverRequest, boolean replace) throws ServletException, IOException {
+        Long id = Long.valueOf(serverRequest.pathVariable("id"));
+        Employee changes = serverRequest.body(Employee.class);
+        if (!replace && changes.getName() == null && changes.getEmail() == null && changes.getPhone() == null) {
+            throw new BadRequestException("at least one of name, email or phone must be supplied");
+        }
+        Long expectedVersion = ifMatchVersion(serverRequest);
+        int updated = dbBulkhead.call(() -> employeeUpdater.update(id, changes, replace, expectedVersion));
+        if (updated == 0) {
+            boolean exists = expectedVersion != null
+                    && dbBulkhead.call(() -> employeeInterface.findVersionById(id)).isPresent();
+            throw exists
+                    ? new PreconditionFailedException("Employee has been modified")
+                    : new ResourceNotFoundException(NOT_FOUND);
+        }
+        employeeCache.invalidate(id);
+        responseBodyCache.evict(BY_ID_ROUTE, id);
+        pageFlights.forgetAll();
+        changeFeed.publish(EmployeeChangeFeed.Type.UPDATED,
+                new EmployeeChangeFeed.EmployeeRef(id, expectedVersion != null ? expectedVersion + 1 : null));
+        ServerResponse.HeadersBuilder<?> response = ServerResponse.noContent();
+        if (expectedVersion != null) {
+            response.eTag(eTag(expectedVersion + 1));
+        }
+        return response.build();
+    }
+
+    /**
+     * Updates an existing employee by loading it, copying the body fields and merging it back.
+     *
+     * <p>An {@code If-Match} header guards against lost updates: unless it lists the current ETag
+     * (or {@code *}) the update is refused with 412. A concurrent write between the read and the
+     * update is caught by the entity version check and also reported as 412.</p>
+     *
+     * @param serverRequest the HTTP request with path variable and updated Employee payload
+     * @return 200 OK with the updated entity and its new ETag, 412 if If-Match does not match
+     * @throws ServletException if the request body cannot be parsed
+     * @throws IOException      on I/O errors
+     */
+    private ServerResponse updateAndReturn(ServerRequest serverRequest) throws ServletException, IOException {
+        Long id = Long.valueOf(serverRequest.pathVariable("id"));
         Employee updatedEmployee = serverRequest.body(Employee.class);
-        originalEmployee.setName(updatedEmployee.getName());
-        originalEmployee.setEmail(updatedEmployee.getEmail());
-        originalEmployee.setPhone(updatedEmployee.getPhone());
+        EmployeeView employee;
+        try {
+            employee = dbBulkhead.call(() -> {
+                Employee originalEmployee = employeeInterface.findById(id)
+                        .orElseThrow(()->new ResourceNotFoundException(NOT_FOUND));
+                if (!ifMatchSatisfied(serverRequest, originalEmployee.getVersion())) {
+                    throw new PreconditionFailedException("Employee has been modified");
+                }
+                originalEmployee.setName(updatedEmployee.getName());
+                originalEmployee.setEmail(updatedEmployee.getEmail());
+                originalEmployee.setPhone(updatedEmployee.getPhone());
+                return EmployeeView.of(employeeInterface.update(originalEmployee));
+            });
+        } catch (OptimisticLockingFailureException e) {
+            throw new PreconditionFailedException("Employee has been modified");
+        }
+        employeeCache.put(employee);
+        responseBodyCache.evict(BY_ID_ROUTE, employee.id());
+        pageFlights.forgetAll();
+        changeFeed.publish(EmployeeChangeFeed.Type.UPDATED, employee);
         return ServerResponse.ok()
-                .contentType(MediaType.APPLICATION_JSON)
-                .body(employeeInterface.update(originalEmployee));
+                .varyBy(HttpHeaders.ACCEPT)
+                .eTag(eTag(employee.version()))
+                .body(employee);
     }
 
     /**
-     * Retrieves all employees.
+     * Retrieves employees.
+     *
+     * <p>With {@code after} and/or {@code limit} query parameters a single keyset page is returned,
+     * together with a {@code next} token (also sent as a {@code Link: rel="next"} header) when more
+     * rows may follow; concurrent requests for the same page share one query. Without them the whole
+     * table is streamed as chunked JSON straight from a JDBC cursor, so memory use does not grow with
+     * the table.</p>
      *
      * @param serverRequest the HTTP request
      * @return 200 OK with a JSON array wrapper of employees
      */
     public ServerResponse fetchAll(ServerRequest serverRequest) {
-        List<Employee> all = employeeInterface.findAll();
-        Employees employees = Employees.builder().employees(all).build();
+        Optional<String> after = serverRequest.param("after");
+        Optional<String> limit = serverRequest.param("limit");
+        if (after.isEmpty() && limit.isEmpty()) {
+            return streamAll();
+        }
+        long afterId = after.map(value -> parseLong("after", value)).orElse(0L);
+        long requested = limit.map(value -> parseLong("limit", value)).orElse((long) paging.defaultLimit());
+        if (requested < 1 || requested > paging.maxLimit()) {
+            throw new BadRequestException("limit must be between 1 and " + paging.maxLimit());
+        }
+        int size = (int) requested;
+        List<EmployeeView> page = pageFlights.execute(new PageKey(afterId, size), () -> dbBulkhead.call(
+                () -> employeeInterface.findViewsByIdGreaterThanOrderByIdAsc(afterId, Limit.of(size))));
+        String next = page.size() == size ? String.valueOf(page.getLast().id()) : null;
+        Employees employees = Employees.builder().employees(page).next(next).build();
+        ServerResponse.BodyBuilder response = ServerResponse.ok().varyBy(HttpHeaders.ACCEPT);
+        if (next != null) {
+            String nextUri = UriComponentsBuilder.fromUri(serverRequest.uri())
+                    .replaceQueryParam("after", next)
+                    .replaceQueryParam("limit", size)
+                    .toUriString();
+            response.header(HttpHeaders.LINK, "<" + nextUri + ">; rel=\"next\"");
+        }
+        return response.body(employees);
+    }
+
+    /**
+     * Searches employees by any combination of {@code email} (exact), {@code namePrefix} and
+     * {@code phone} (exact), ordered by one or more {@code sort=property[,asc|desc]} parameters
+     * (default {@code id}) and capped by {@code limit}.
+     *
+     * @param serverRequest the HTTP request carrying the filter, sort and limit query parameters
+     * @return 200 OK with a JSON array wrapper of matching employees, 400 without any filter
+     */
+    public ServerResponse search(ServerRequest serverRequest) {
+        EmployeeSearch.Criteria criteria = new EmployeeSearch.Criteria(
+                serverRequest.param("email").orElse(null),
+                serverRequest.param("namePrefix").orElse(null),
+                serverRequest.param("phone").orElse(null));
+        if (criteria.isEmpty()) {
+            throw new BadRequestException("at least one of email, namePrefix or phone must be supplied");
+        }
+        long requested = serverRequest.param("limit").map(value -> parseLong("limit", value))
+                .orElse((long) paging.defaultLimit());
+        if (requested < 1 || requested > paging.maxLimit()) {
+            throw new BadRequestException("limit must be between 1 and " + paging.maxLimit());
+        }
+        Sort sort = parseSort(serverRequest.params().getOrDefault("sort", List.of()));
+        List<EmployeeView> found = dbBulkhead.call(
+                () -> employeeSearch.search(criteria, sort, Limit.of((int) requested)));
         return ServerResponse.ok()
-                .contentType(MediaType.APPLICATION_JSON)
-                .body(employees);
+                .varyBy(HttpHeaders.ACCEPT)
+                .body(Employees.builder().employees(found).build());
     }
 
     /**
-     * Retrieves an employee by id.
+     * Retrieves an employee by id through the read-through cache.
+     *
+     * <p>The version is returned as a strong ETag. When the request carries {@code If-None-Match},
+     * only the version is queried and a matching tag is answered with 304, skipping the entity load
+     * and serialization. Otherwise the body is served from the pre-encoded response cache, so a hot
+     * employee is encoded once per version and content type.</p>
      *
      * @param serverRequest the HTTP request containing the employee id path variable
-     * @return 200 OK with the employee payload, or 404 if not found
+     * @return 200 OK with the employee payload, 304 if unchanged, or 404 if not found
      */
     public ServerResponse fetchById(ServerRequest serverRequest) {
         Long id = Long.valueOf(serverRequest.pathVariable("id"));
-        Employee employee = employeeInterface.findById(id)
-                .orElseThrow(() -> new ResourceNotFoundException("Employee with id " + id + " not found"));
+        if (!serverRequest.headers().header(HttpHeaders.IF_NONE_MATCH).isEmpty()) {
+            Long version = dbBulkhead.call(() -> employeeInterface.findVersionById(id))
+                    .orElseThrow(() -> new ResourceNotFoundException(NOT_FOUND));
+            Optional<ServerResponse> notModified = serverRequest.checkNotModified(eTag(version));
+            if (notModified.isPresent()) {
+                return notModified.get();
+            }
+        }
+        EmployeeView employee = employeeCache.findById(id)
+                .orElseThrow(() -> new ResourceNotFoundException(NOT_FOUND));
+        MediaType mediaType = responseBodyCache.negotiate(serverRequest);
+        if (mediaType != null) {
+            return ResponseBodyCache.ok(
+                    responseBodyCache.get(BY_ID_ROUTE, id, eTag(employee.version()), mediaType, () -> employee));
+        }
         return ServerResponse.ok()
-                .contentType(MediaType.APPLICATION_JSON)
+                .varyBy(HttpHeaders.ACCEPT)
+                .eTag(eTag(employee.version()))
                 .body(employee);
     }
+
+    /**
+     * Streams every employee as {@code {"employees":[...]}} without materializing the table.
+     * The body bypasses the logging filter's response cache so it is flushed as it is produced.
+     * A bulkhead slot is taken here, so saturation still maps to a 503, and held until the last row is written.
+     *
+     * @return 200 OK whose body is written row by row from the JDBC cursor
+     */
+    private ServerResponse streamAll() {
+        return ServerResponse.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .build((request, response) -> {
+                    // Taken only once the body is written, so a response that never is cannot leak the slot
+                    DbBulkhead.Permit permit;
+                    try {
+                        permit = dbBulkhead.acquire();
+                    } catch (ServiceUnavailableException e) {
+                        problemResponses.write(e, response);
+                        return null;
+                    }
+                    try (permit;
+                         JsonGenerator generator = jsonMapper.createGenerator(LoggingFilter.streamingOutputStream(response))) {
+                        generator.writeStartObject();
+                        generator.writeName("employees");
+                        generator.writeStartArray();
+                        employeeCursor.forEach(generator::writePOJO);
+                        generator.writeEndArray();
+                        generator.writeEndObject();
+                    }
+                    return null;
+                });
+    }
+
+    /**
+     * Formats an entity version as a strong ETag.
+     *
+     * @param version the entity version
+     * @return the quoted entity tag
+     */
+    static String eTag(Long version) {
+        return "\"" + version + "\"";
+    }
+
+    /**
+     * Handles employees inserted outside this resource, e.g. by an import: clears their caches and
+     * publishes their ids to the change feed.
+     *
+     * @param ids the generated ids
+     */
+    public void created(List<Long> ids) {
+        evictCreated(ids);
+        changeFeed.publishAll(EmployeeChangeFeed.Type.CREATED,
+                ids.stream().map(id -> new EmployeeChangeFeed.EmployeeRef(id, null)).toList());
+    }
+
+    /**
+     * Clears any cached "not found" for newly inserted ids without filling the caches with cold rows.
+     *
+     * @param ids the generated ids
+     */
+    private void evictCreated(List<Long> ids) {
+        employeeCache.invalidateAll(ids);
+        responseBodyCache.evictAll(BY_ID_ROUTE, ids);
+        pageFlights.forgetAll();
+    }
+
+    /**
+     * Extracts the version a single-statement update must match from {@code If-Match}.
+     *
+     * @param serverRequest the HTTP request
+     * @return the expected version, or null when the header is absent or {@code *}
+     * @throws BadRequestException if the header is not a single strong entity tag
+     */
+    private static Long ifMatchVersion(ServerRequest serverRequest) {
+        List<String> ifMatch = serverRequest.headers().header(HttpHeaders.IF_MATCH);
+        if (ifMatch.isEmpty()) {
+            return null;
+        }
+        String tag = String.join(",", ifMatch).trim();
+        if (tag.equals("*")) {
+            return null;
+        }
+        if (tag.length() < 3 || !tag.startsWith("\"") || !tag.endsWith("\"")) {
+            throw new BadRequestException("If-Match must be a single strong entity tag");
+        }
+        return parseLong("If-Match", tag.substring(1, tag.length() - 1));
+    }
+
+    /**
+     * Checks an optional {@code If-Match} header against the current version using strong comparison.
+     *
+     * @param serverRequest the HTTP request
+     * @param version       the current entity version
+     * @return true when the header is absent, is {@code *}, or lists the current ETag
+     */
+    private static boolean ifMatchSatisfied(ServerRequest serverRequest, Long version) {
+        List<String> ifMatch = serverRequest.headers().header(HttpHeaders.IF_MATCH);
+        if (ifMatch.isEmpty()) {
+            return true;
+        }
+        String current = eTag(version);
+        for (String value : ifMatch) {
+            for (String tag : value.split(",")) {
+                String trimmed = tag.trim();
+                if (trimmed.equals("*") || trimmed.equals(current)) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Parses {@code sort=property[,asc|desc]} parameters against the sortable properties.
+     *
+     * @param values the raw sort parameter values
+     * @return the requested ordering, or ascending id when none was given
+     */
+    private static Sort parseSort(List<String> values) {
+        List<Sort.Order> orders = new ArrayList<>(values.size());
+        for (String value : values) {
+            String[] parts = value.split(",");
+            String property = parts[0].trim();
+            if (!SORTABLE.contains(property) || parts.length > 2) {
+                throw new BadRequestException("sort must be one of " + SORTABLE + " optionally followed by ,asc or ,desc");
+            }
+            Sort.Direction direction = parts.length == 2
+                    ? Sort.Direction.fromOptionalString(parts[1].trim())
+                            .orElseThrow(() -> new BadRequestException("sort direction must be asc or desc"))
+                    : Sort.Direction.ASC;
+            orders.add(new Sort.Order(direction, property));
+        }
+        return orders.isEmpty() ? Sort.by("id") : Sort.by(orders);
+    }
+
+    /**
+     * Parses a numeric query parameter, mapping malformed input to a 400.
+     *
+     * @param name  the parameter name, used in the error message
+     * @param value the raw parameter value
+     * @return the parsed value
+     */
+    private static long parseLong(String name, String value) {
+        try {
+            return Long.parseLong(value);
+        } catch (NumberFormatException e) {
+            throw new BadRequestException(name + " must be a number");
+        }
+    }
+
+    /**
+     * Identifies a keyset page for coalescing concurrent identical page queries.
+     *
+     * @param afterId the id the page starts after
+     * @param limit   the page size
+     */
+    public record PageKey(long afterId, int limit) {
+    }
 }
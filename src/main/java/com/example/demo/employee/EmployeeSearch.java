@@ -0,0 +1,96 @@
+package com.example.demo.employee;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.repository.query.QueryUtils;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Filtered employee lookups returning read-only {@link EmployeeView}s.
+ *
+ * <p>Filters combine with AND and map onto the schema indexes declared on {@link Employee}: exact email
+ * (unique), name prefix ({@code LIKE 'prefix%'} on a B-tree index) and exact phone, so lookups stay
+ * logarithmic as the table grows. Ordering and size use Spring Data's {@link Sort} and {@link Limit}.</p>
+ */
+public class EmployeeSearch {
+
+    private final EntityManager entityManager;
+    private final TransactionTemplate readOnlyTransaction;
+
+    /**
+     * Creates a search over the employee table.
+     *
+     * @param entityManager       a shared, transaction-bound entity manager
+     * @param readOnlyTransaction template configured for read-only transactions
+     */
+    public EmployeeSearch(EntityManager entityManager, TransactionTemplate readOnlyTransaction) {
+        this.entityManager = entityManager;
+        this.readOnlyTransaction = readOnlyTransaction;
+    }
+
+    /**
+     * Finds employees matching every supplied filter.
+     *
+     * @param criteria the filters; null fields are ignored
+     * @param sort     the ordering
+     * @param limit    the maximum number of rows
+     * @return the matching views
+     */
+    public List<EmployeeView> search(Criteria criteria, Sort sort, Limit limit) {
+        return readOnlyTransaction.execute(status -> {
+            CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+            CriteriaQuery<EmployeeView> query = cb.createQuery(EmployeeView.class);
+            Root<Employee> root = query.from(Employee.class);
+            List<Predicate> predicates = new ArrayList<>(3);
+            if (criteria.email() != null) {
+                predicates.add(cb.equal(root.get("email"), criteria.email()));
+            }
+            if (criteria.namePrefix() != null) {
+                predicates.add(cb.like(root.get("name"), escapeLike(criteria.namePrefix()) + "%", '\\'));
+            }
+            if (criteria.phone() != null) {
+                predicates.add(cb.equal(root.get("phone"), criteria.phone()));
+            }
+            query.select(cb.construct(EmployeeView.class,
+                            root.get("id"), root.get("name"), root.get("email"), root.get("phone"), root.get("version")))
+                    .where(predicates.toArray(Predicate[]::new))
+                    .orderBy(QueryUtils.toOrders(sort, root, cb));
+            return entityManager.createQuery(query)
+                    .setHint(HibernateHints.HINT_READ_ONLY, true)
+                    .setMaxResults(limit.max())
+                    .getResultList();
+        });
+    }
+
+    private static String escapeLike(String value) {
+        return value.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+    }
+
+    /**
+     * Search filters; a null field does not constrain the result.
+     *
+     * @param email      exact email
+     * @param namePrefix leading characters of the name
+     * @param phone      exact phone
+     */
+    public record Criteria(String email, String namePrefix, String phone) {
+
+        /**
+         * Tells whether no filter was supplied.
+         *
+         * @return true when every field is null
+         */
+        public boolean isEmpty() {
+            return email == null && namePrefix == null && phone == null;
+        }
+    }
+}
@@ -0,0 +1,74 @@
+package com.example.demo.employee;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaUpdate;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Applies employee updates as one {@code UPDATE employee SET ... WHERE id=? [AND version=?]} statement.
+ *
+ * <p>No entity is loaded, so there is no preliminary SELECT and no dirty checking; the version column
+ * is incremented in the same statement to keep optimistic locking intact for other writers.</p>
+ */
+public class EmployeeUpdater {
+
+    private final EntityManager entityManager;
+    private final TransactionTemplate transactionTemplate;
+
+    /**
+     * Creates an updater.
+     *
+     * @param entityManager       a shared, transaction-bound entity manager
+     * @param transactionTemplate template used to run each update in its own transaction
+     */
+    public EmployeeUpdater(EntityManager entityManager, TransactionTemplate transactionTemplate) {
+        this.entityManager = entityManager;
+        this.transactionTemplate = transactionTemplate;
+    }
+
+    /**
+     * Updates one employee in a single statement.
+     *
+     * @param id              the employee id
+     * @param changes         the new values; only non-null fields are written unless {@code replace} is set
+     * @param replace         when true every column is written, nulls included (PUT semantics)
+     * @param expectedVersion when not null, the update only applies if the row still has this version
+     * @return the number of rows updated: 0 when the id is unknown or the version no longer matches
+     * @throws org.springframework.dao.DataIntegrityViolationException if the new email belongs to another employee
+     */
+    public int update(Long id, Employee changes, boolean replace, Long expectedVersion) {
+        Integer updated;
+        try {
+            updated = transactionTemplate.execute(status -> {
+                CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+                CriteriaUpdate<Employee> update = cb.createCriteriaUpdate(Employee.class);
+                Root<Employee> root = update.from(Employee.class);
+                set(cb, update, root, "name", changes.getName(), replace);
+                set(cb, update, root, "email", changes.getEmail(), replace);
+                set(cb, update, root, "phone", changes.getPhone(), replace);
+                update.set(root.<Long>get("version"), cb.sum(root.<Long>get("version"), 1L));
+                Predicate where = cb.equal(root.get("id"), id);
+                if (expectedVersion != null) {
+                    where = cb.and(where, cb.equal(root.get("version"), expectedVersion));
+                }
+                update.where(where);
+                return entityManager.createQuery(update).executeUpdate();
+            });
+        } catch (RuntimeException e) {
+            throw PersistenceExceptions.translate(e);
+        }
+        return updated == null ? 0 : updated;
+    }
+
+    private static void set(CriteriaBuilder cb, CriteriaUpdate<Employee> update, Root<Employee> root,
+                            String attribute, String value, boolean replace) {
+        if (value != null) {
+            update.set(root.<String>get(attribute), value);
+        } else if (replace) {
+            update.set(root.<String>get(attribute), cb.nullLiteral(String.class));
+        }
+    }
+}
@@ -0,0 +1,27 @@
+package com.example.demo.employee;
+
+/**
+ * Immutable, read-only projection of an employee returned by the read paths.
+ *
+ * <p>Views are built by JPQL constructor expressions, so they never enter a persistence context,
+ * take no part in dirty checking and can be shared freely, e.g. by {@link EmployeeCache}.</p>
+ *
+ * @param id      the employee id
+ * @param name    the employee name
+ * @param email   the employee email
+ * @param phone   the employee phone
+ * @param version the optimistic lock version
+ */
+public record EmployeeView(Long id, String name, String email, String phone, Long version) {
+
+    /**
+     * Creates a view of an entity, e.g. right after it was written.
+     *
+     * @param employee the entity
+     * @return a detached, immutable copy of its state
+     */
+    public static EmployeeView of(Employee employee) {
+        return new EmployeeView(employee.getId(), employee.getName(), employee.getEmail(), employee.getPhone(),
+                employee.getVersion());
+    }
+}
@@ -0,0 +1,197 @@
+package com.example.demo.employee;
+
+import com.example.demo.util.DbBulkhead;
+import com.example.demo.util.ServiceUnavailableException;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Group commit for single employee creates.
+ *
+ * <p>Request threads queue their employee and wait. A single flusher thread takes the first waiting
+ * create, gathers whatever else arrives within {@code maxDelay} up to {@code maxBatchSize}, and inserts
+ * the window through {@link EmployeeBatchWriter} in one transaction, so N concurrent creates cost one
+ * commit instead of N. Each caller is then completed with its own generated id.</p>
+ *
+ * <p>If the batch transaction fails (for example on a duplicate email) the window is retried one
+ * employee per transaction, so only the offending request sees the error and the others still
+ * succeed. A caller that gives up after {@code timeout} gets a 503; its create may still be committed
+ * if the flush was already in flight.</p>
+ */
+public class EmployeeWriteCoalescer implements AutoCloseable {
+
+    private static final Logger LOG = LoggerFactory.getLogger(EmployeeWriteCoalescer.class);
+    private static final long IDLE_POLL_MILLIS = 100;
+
+    private final EmployeeBatchWriter batchWriter;
+    private final DbBulkhead dbBulkhead;
+    private final int maxBatchSize;
+    private final long maxDelayNanos;
+    private final Duration timeout;
+    private final BlockingQueue<PendingWrite> queue;
+    private final DistributionSummary batchSizes;
+    private final Thread flusher;
+    private volatile boolean running = true;
+
+    /**
+     * Creates the coalescer and starts its flusher thread.
+     *
+     * @param batchWriter   writer used for each window
+     * @param dbBulkhead    bulkhead guarding the connection each flush uses
+     * @param properties    window and queue bounds
+     * @param meterRegistry registry receiving the batch size summary and queue depth gauge
+     */
+    public EmployeeWriteCoalescer(EmployeeBatchWriter batchWriter, DbBulkhead dbBulkhead,
+                                  CoalescingProperties properties, MeterRegistry meterRegistry) {
+        this.batchWriter = batchWriter;
+        this.dbBulkhead = dbBulkhead;
+        this.maxBatchSize = properties.maxBatchSize();
+        this.maxDelayNanos = properties.maxDelay().toNanos();
+        this.timeout = properties.timeout();
+        this.queue = new LinkedBlockingQueue<>(properties.maxQueue());
+        this.batchSizes = DistributionSummary.builder("employee.coalescer.batch.size")
+                .description("Creates committed together by the write coalescer")
+                .register(meterRegistry);
+        Gauge.builder("employee.coalescer.queue.depth", queue, BlockingQueue::size)
+                .description("Creates waiting for the write coalescer to flush")
+                .register(meterRegistry);
+        this.flusher = Thread.ofPlatform().daemon().name("employee-write-coalescer").start(this::flushLoop);
+    }
+
+    /**
+     * Queues a create and blocks until its window has been committed.
+     *
+     * @param employee the employee to insert; any client supplied id or version is ignored
+     * @return the persisted employee carrying its generated id and version
+     * @throws ServiceUnavailableException if the queue is full, the coalescer is closed or the wait times out
+     */
+    public Employee save(Employee employee) {
+        PendingWrite pending = new PendingWrite(employee, new CompletableFuture<>());
+        if (!running || !queue.offer(pending)) {
+            throw new ServiceUnavailableException("Write queue is full", timeout);
+        }
+        try {
+            return pending.result().get(timeout.toNanos(), TimeUnit.NANOSECONDS);
+        } catch (TimeoutException e) {
+            pending.result().cancel(false);
+            throw new ServiceUnavailableException("Timed out waiting for the write to commit", timeout);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            pending.result().cancel(false);
+            throw new ServiceUnavailableException("Interrupted waiting for the write to commit", timeout);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    /**
+     * Stops accepting creates, commits the ones already queued and stops the flusher thread.
+     *
+     * @throws InterruptedException if interrupted while waiting for the flusher to finish
+     */
+    @Override
+    public void close() throws InterruptedException {
+        running = false;
+        flusher.join(TimeUnit.SECONDS.toMillis(5));
+    }
+
+    /**
+     * Flusher loop: waits for the first create of a window, then gathers more until the window is
+     * full or {@code maxDelay} has passed since it opened.
+     */
+    private void flushLoop() {
+        List<PendingWrite> window = new ArrayList<>(maxBatchSize);
+        try {
+            while (running || !queue.isEmpty()) {
+                PendingWrite first = queue.poll(IDLE_POLL_MILLIS, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                window.add(first);
+                long deadline = System.nanoTime() + maxDelayNanos;
+                while (window.size() < maxBatchSize) {
+                    PendingWrite next = queue.poll(deadline - System.nanoTime(), TimeUnit.NANOSECONDS);
+                    if (next == null) {
+                        break;
+                    }
+                    window.add(next);
+                }
+                flush(window);
+                window.clear();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            ServiceUnavailableException closed = new ServiceUnavailableException("Write coalescer stopped", timeout);
+            window.forEach(pending -> pending.result().completeExceptionally(closed));
+            queue.forEach(pending -> pending.result().completeExceptionally(closed));
+        }
+    }
+
+    /**
+     * Commits one window, skipping callers that already gave up.
+     *
+     * @param window the creates gathered for this flush
+     */
+    private void flush(List<PendingWrite> window) {
+        List<PendingWrite> live = window.stream().filter(pending -> !pending.result().isDone()).toList();
+        if (live.isEmpty()) {
+            return;
+        }
+        batchSizes.record(live.size());
+        try {
+            List<Employee> persisted = dbBulkhead.call(
+                    () -> batchWriter.persistAll(live.stream().map(PendingWrite::employee).toList()));
+            for (int i = 0; i < live.size(); i++) {
+                live.get(i).result().complete(persisted.get(i));
+            }
+        } catch (ServiceUnavailableException e) {
+            live.forEach(pending -> pending.result().completeExceptionally(e));
+        } catch (RuntimeException e) {
+            if (live.size() == 1) {
+                live.getFirst().result().completeExceptionally(e);
+                return;
+            }
+            LOG.debug("Coalesced insert of {} employees failed, retrying individually", live.size(), e);
+            live.forEach(this::flushAlone);
+        }
+    }
+
+    /**
+     * Commits a single create in its own transaction so a failure only reaches its own caller.
+     *
+     * @param pending the create to commit
+     */
+    private void flushAlone(PendingWrite pending) {
+        try {
+            Employee persisted = dbBulkhead.call(() -> batchWriter.persistAll(List.of(pending.employee()))).getFirst();
+            pending.result().complete(persisted);
+        } catch (RuntimeException e) {
+            pending.result().completeExceptionally(e);
+        }
+    }
+
+    /**
+     * A queued create and the future its request thread waits on.
+     *
+     * @param employee the employee to insert
+     * @param result   completed with the persisted employee or the failure
+     */
+    private record PendingWrite(Employee employee, CompletableFuture<Employee> result) {
+    }
+}
@@ -1,6 +1,7 @@
 package com.example.demo.employee;
 
 
+import com.fasterxml.jackson.annotation.JsonInclude;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
@@ -19,5 +20,11 @@ public class Employees {
     /**
      * The list of employee items in the response.
      */
-    List<Employee> employees;
+    List<EmployeeView> employees;
+
+    /**
+     * Token for the next keyset page, passed back as {@code after}; absent on the last page.
+     */
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    String next;
 }
@@ -0,0 +1,19 @@
+package com.example.demo.employee;
+
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+/**
+ * Settings for {@code GET /employee/export}, bound from {@code app.employee.export}.
+ *
+ * @param fetchSize      number of rows the JDBC driver fetches per round trip
+ * @param bufferSize     bytes buffered before they are handed to the servlet output stream
+ * @param flushEveryRows rows written between explicit flushes, so the client receives data while the query runs
+ * @param gzipLevel      deflate level, 1 (fastest) to 9 (smallest), when the client accepts gzip
+ * @param maxConcurrent  exports running at once; each holds a database bulkhead slot until it finishes
+ */
+public record ExportProperties(@DefaultValue("1000") int fetchSize,
+                               @DefaultValue("65536") int bufferSize,
+                               @DefaultValue("1000") int flushEveryRows,
+                               @DefaultValue("1") int gzipLevel,
+                               @DefaultValue("2") int maxConcurrent) {
+}
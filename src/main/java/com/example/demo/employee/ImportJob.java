@@ -0,0 +1,164 @@
+package com.example.demo.employee;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Progress of one bulk import. Counters are updated by the parsing thread and the batch writers and
+ * may be read at any time through {@link #status()}.
+ */
+public class ImportJob {
+
+    private final String id;
+    private final String format;
+    private final int maxErrors;
+    private final Instant startedAt = Instant.now();
+    private final AtomicLong rowsRead = new AtomicLong();
+    private final AtomicLong rowsImported = new AtomicLong();
+    private final AtomicLong rowsRejected = new AtomicLong();
+    private final List<RowError> errors = new ArrayList<>();
+    private volatile State state = State.RUNNING;
+    private volatile Instant finishedAt;
+    private volatile String failure;
+
+    /**
+     * Creates a running job.
+     *
+     * @param id        job id
+     * @param format    content type of the upload
+     * @param maxErrors number of row errors kept
+     */
+    public ImportJob(String id, String format, int maxErrors) {
+        this.id = id;
+        this.format = format;
+        this.maxErrors = maxErrors;
+    }
+
+    /**
+     * Gets the job id.
+     *
+     * @return the id
+     */
+    public String id() {
+        return id;
+    }
+
+    /**
+     * Gets the start time.
+     *
+     * @return when the job was created
+     */
+    public Instant startedAt() {
+        return startedAt;
+    }
+
+    /**
+     * Tells whether the job has finished, successfully or not.
+     *
+     * @return true once completed or failed
+     */
+    public boolean isFinished() {
+        return state != State.RUNNING;
+    }
+
+    void rowRead() {
+        rowsRead.incrementAndGet();
+    }
+
+    void imported(int rows) {
+        rowsImported.addAndGet(rows);
+    }
+
+    void rejected(long line, String message) {
+        rowsRejected.incrementAndGet();
+        synchronized (errors) {
+            if (errors.size() < maxErrors) {
+                errors.add(new RowError(line, message));
+            }
+        }
+    }
+
+    void complete() {
+        finishedAt = Instant.now();
+        state = State.COMPLETED;
+    }
+
+    void fail(String message) {
+        failure = message;
+        finishedAt = Instant.now();
+        state = State.FAILED;
+    }
+
+    /**
+     * Takes a consistent-enough snapshot of the job for the status resource.
+     *
+     * @return the current status
+     */
+    public ImportStatus status() {
+        return snapshot(true);
+    }
+
+    /**
+     * Takes a snapshot without the row errors, for job listings.
+     *
+     * @return the current status with an empty error list
+     */
+    public ImportStatus summary() {
+        return snapshot(false);
+    }
+
+    private ImportStatus snapshot(boolean withErrors) {
+        Instant end = finishedAt != null ? finishedAt : Instant.now();
+        long imported = rowsImported.get();
+        double seconds = Math.max(1, Duration.between(startedAt, end).toMillis()) / 1000.0;
+        List<RowError> reported = List.of();
+        if (withErrors) {
+            synchronized (errors) {
+                reported = List.copyOf(errors);
+            }
+        }
+        return new ImportStatus(id, state, format, rowsRead.get(), imported, rowsRejected.get(),
+                Math.round(imported / seconds), startedAt, finishedAt, failure, reported);
+    }
+
+    /**
+     * Lifecycle of an import.
+     */
+    public enum State {
+        RUNNING,
+        COMPLETED,
+        FAILED
+    }
+
+    /**
+     * A row that was not imported.
+     *
+     * @param line    1-based line (NDJSON) or record (CSV, header included) number in the upload
+     * @param message why it was rejected
+     */
+    public record RowError(long line, String message) {
+    }
+
+    /**
+     * Job status as returned by the status resource.
+     *
+     * @param id            job id
+     * @param state         lifecycle state
+     * @param format        content type of the upload
+     * @param rowsRead      data rows parsed so far
+     * @param rowsImported  rows committed
+     * @param rowsRejected  rows failing validation or insertion
+     * @param rowsPerSecond committed rows per second since the start
+     * @param startedAt     start time
+     * @param finishedAt    end time, null while running
+     * @param failure       why the job stopped early, null unless failed
+     * @param errors        first rejected rows, up to the configured maximum
+     */
+    public record ImportStatus(String id, State state, String format, long rowsRead, long rowsImported,
+                               long rowsRejected, long rowsPerSecond, Instant startedAt, Instant finishedAt,
+                               String failure, List<RowError> errors) {
+    }
+}
@@ -0,0 +1,19 @@
+package com.example.demo.employee;
+
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+/**
+ * Settings for {@code POST /employee/import}, bound from {@code app.employee.import}.
+ *
+ * @param batchSize          valid rows committed per transaction
+ * @param maxInFlightBatches batches being written at once; parsing pauses, and with it the upload, while all are busy
+ * @param maxErrors          row errors kept per job; further errors are only counted
+ * @param retainedJobs       finished jobs kept for status queries
+ * @param maxLineLength      longest NDJSON line or CSV record in characters; longer rows are rejected unbuffered
+ */
+public record ImportProperties(@DefaultValue("1000") int batchSize,
+                               @DefaultValue("2") int maxInFlightBatches,
+                               @DefaultValue("1000") int maxErrors,
+                               @DefaultValue("100") int retainedJobs,
+                               @DefaultValue("65536") int maxLineLength) {
+}
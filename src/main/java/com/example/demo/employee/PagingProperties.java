@@ -0,0 +1,15 @@
+package com.example.demo.employee;
+
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+/**
+ * Tuning for the paged and streamed {@code GET /employee} reads, bound from {@code app.employee.paging}.
+ *
+ * @param defaultLimit    page size used when a page is requested without {@code limit}
+ * @param maxLimit        largest {@code limit} a client may ask for
+ * @param streamFetchSize JDBC fetch size used by the unbounded streaming mode
+ */
+public record PagingProperties(@DefaultValue("100") int defaultLimit,
+                               @DefaultValue("1000") int maxLimit,
+                               @DefaultValue("500") int streamFetchSize) {
+}
@@ -0,0 +1,35 @@
+package com.example.demo.employee;
+
+import org.springframework.dao.DataAccessException;
+import org.springframework.orm.jpa.vendor.HibernateJpaDialect;
+
+/**
+ * Translates exceptions from work done directly on a shared {@link jakarta.persistence.EntityManager}.
+ *
+ * <p>Repository proxies translate Hibernate and JPA exceptions into Spring's {@link DataAccessException}
+ * hierarchy, but the batch writer and updater bypass them and flush or execute statements themselves,
+ * so e.g. a unique email violation would otherwise escape as a Hibernate
+ * {@code ConstraintViolationException} instead of a {@code DataIntegrityViolationException} (409).</p>
+ */
+final class PersistenceExceptions {
+
+    private static final HibernateJpaDialect DIALECT = new HibernateJpaDialect();
+
+    private PersistenceExceptions() {
+    }
+
+    /**
+     * Translates an exception the way a repository proxy would.
+     *
+     * @param exception the exception thrown inside or by the transaction
+     * @return the matching {@link DataAccessException}, or the exception itself when it has no translation
+     */
+    static RuntimeException translate(RuntimeException exception) {
+        if (exception instanceof DataAccessException) {
+            // Already translated, e.g. by the transaction manager on commit
+            return exception;
+        }
+        DataAccessException translated = DIALECT.translateExceptionIfPossible(exception);
+        return translated != null ? translated : exception;
+    }
+}
@@ -0,0 +1,144 @@
+package com.example.demo.util;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Background writer for {@link LoggingFilter} records.
+ *
+ * <p>Request threads hand records to a bounded, lock-free queue and return immediately; a single
+ * daemon thread decodes the captured bodies and writes the log lines. When the queue is full the
+ * record is dropped and counted in {@code logging.records.dropped} instead of blocking the request.</p>
+ */
+public class AsyncLogWriter implements AutoCloseable {
+
+    // Same category as the filter so the existing logging level configuration applies
+    private static final Logger LOG = LoggerFactory.getLogger(LoggingFilter.class);
+    private static final long IDLE_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(5);
+
+    private final Queue<LogRecord> queue = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger size = new AtomicInteger();
+    private final int capacity;
+    private final Counter dropped;
+    private final Thread writer;
+    private volatile boolean running = true;
+
+    /**
+     * Creates the writer and starts its background thread.
+     *
+     * @param capacity      maximum number of queued records
+     * @param meterRegistry registry receiving the queue size gauge and drop counter
+     */
+    public AsyncLogWriter(int capacity, MeterRegistry meterRegistry) {
+        this.capacity = capacity;
+        this.dropped = Counter.builder("logging.records.dropped")
+                .description("Log records discarded because the async logging queue was full")
+                .register(meterRegistry);
+        Gauge.builder("logging.queue.size", size, AtomicInteger::get)
+                .description("Log records waiting for the async logging writer")
+                .register(meterRegistry);
+        this.writer = Thread.ofPlatform().daemon().name("logging-writer").start(this::drain);
+    }
+
+    /**
+     * Queues a record without blocking.
+     *
+     * @param logRecord the record to write
+     * @return true if queued, false if the queue was full and the record was dropped
+     */
+    public boolean offer(LogRecord logRecord) {
+        if (size.incrementAndGet() > capacity) {
+            size.decrementAndGet();
+            dropped.increment();
+            return false;
+        }
+        queue.offer(logRecord);
+        return true;
+    }
+
+    /**
+     * Gets the number of records dropped so far.
+     *
+     * @return the dropped record count
+     */
+    public long droppedCount() {
+        return (long) dropped.count();
+    }
+
+    /**
+     * Stops the background thread after it has written the records still queued.
+     *
+     * @throws InterruptedException if interrupted while waiting for the writer to finish
+     */
+    @Override
+    public void close() throws InterruptedException {
+        running = false;
+        LockSupport.unpark(writer);
+        writer.join(TimeUnit.SECONDS.toMillis(5));
+    }
+
+    /**
+     * Writer loop: drains the queue, parking briefly whenever it is empty.
+     */
+    private void drain() {
+        while (running || !queue.isEmpty()) {
+            LogRecord logRecord = queue.poll();
+            if (logRecord == null) {
+                LockSupport.parkNanos(IDLE_PARK_NANOS);
+                continue;
+            }
+            size.decrementAndGet();
+            try {
+                write(logRecord);
+            } catch (RuntimeException e) {
+                LOG.warn("Failed to write log record", e);
+            }
+        }
+    }
+
+    /**
+     * Decodes the captured bodies and writes the request and response log lines.
+     *
+     * @param logRecord the record to write
+     */
+    private void write(LogRecord logRecord) {
+        LOG.info("Incoming request: method={}, uri={}, contentType={}, body={} timeTaken={}ms",
+                logRecord.method(), logRecord.uri(), logRecord.requestContentType(),
+                decode(logRecord.requestBody(), logRecord.requestEncoding()), logRecord.timeTakenMillis());
+        LOG.info("Outgoing response: status={}, contentType={}, body={}",
+                logRecord.status(), logRecord.responseContentType(),
+                decode(logRecord.responseBody(), logRecord.responseEncoding()));
+    }
+
+    private static String decode(byte[] body, String encoding) {
+        return body.length == 0 ? "" : new String(body, LoggingFilter.getCharset(encoding));
+    }
+
+    /**
+     * An exchange captured by the filter. Bodies are already truncated and left undecoded.
+     *
+     * @param method              HTTP method
+     * @param uri                 request URI
+     * @param requestContentType  request content type, may be null
+     * @param requestEncoding     request character encoding, may be null
+     * @param requestBody         leading request body bytes, empty when not captured
+     * @param status              response status
+     * @param responseContentType response content type, may be null
+     * @param responseEncoding    response character encoding, may be null
+     * @param responseBody        leading response body bytes, empty when not captured
+     * @param timeTakenMillis     time spent in the filter chain
+     */
+    public record LogRecord(String method, String uri, String requestContentType, String requestEncoding,
+                            byte[] requestBody, int status, String responseContentType, String responseEncoding,
+                            byte[] responseBody, long timeTakenMillis) {
+    }
+}
@@ -0,0 +1,19 @@
+package com.example.demo.util;
+
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+/**
+ * Settings for the database bulkhead, bound from {@code app.db.bulkhead}.
+ *
+ * @param maxConcurrent concurrent database calls allowed; 0 means the Hikari pool size
+ * @param maxQueue      callers allowed to wait for a slot before new arrivals are rejected
+ * @param maxWait       longest a caller waits for a slot before being rejected
+ * @param retryAfter    Retry-After sent with 503 responses
+ */
+public record BulkheadProperties(@DefaultValue("0") int maxConcurrent,
+                                 @DefaultValue("200") int maxQueue,
+                                 @DefaultValue("250ms") Duration maxWait,
+                                 @DefaultValue("1s") Duration retryAfter) {
+}
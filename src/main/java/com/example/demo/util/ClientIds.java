@@ -0,0 +1,26 @@
+package com.example.demo.util;
+
+import jakarta.servlet.http.HttpServletRequest;
+
+/**
+ * Identifies the client behind a request, for per-client policies such as rate limiting and
+ * read-your-writes pinning.
+ *
+ * <p>Only the remote address is used: nothing validates {@code X-API-Key}, so keying on it would let a
+ * client mint a fresh identity, and with it a fresh rate limit, on every request.</p>
+ */
+final class ClientIds {
+
+    private ClientIds() {
+    }
+
+    /**
+     * Identifies the client of a request.
+     *
+     * @param request the HTTP request
+     * @return the remote address
+     */
+    static String of(HttpServletRequest request) {
+        return request.getRemoteAddr();
+    }
+}
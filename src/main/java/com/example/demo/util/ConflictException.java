@@ -0,0 +1,15 @@
+package com.example.demo.util;
+
+/**
+ * 409 Conflict exception.
+ */
+public final class ConflictException extends HttpException {
+    /**
+     * Creates a ConflictException with the given message.
+     *
+     * @param message description of the conflict
+     */
+    public ConflictException(String message) {
+        super(message, 409);
+    }
+}
@@ -0,0 +1,142 @@
+package com.example.demo.util;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+import java.time.Duration;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Admission control in front of database calls.
+ *
+ * <p>A semaphore sized to the connection pool caps concurrent calls, so thousands of virtual threads
+ * queue here, with a bounded queue and deadline, instead of timing out inside Hikari. When the queue
+ * is full or the deadline passes the call is rejected with a {@link ServiceUnavailableException}
+ * carrying a Retry-After hint. Queue depth, in-flight calls, wait time and rejections are published
+ * under {@code db.bulkhead.*}.</p>
+ */
+public class DbBulkhead {
+
+    private final Semaphore permits;
+    private final int maxQueue;
+    private final long maxWaitNanos;
+    private final Duration retryAfter;
+    private final AtomicInteger waiting = new AtomicInteger();
+    private final AtomicInteger active = new AtomicInteger();
+    private final Timer waitTimer;
+    private final Counter queueFullRejections;
+    private final Counter timeoutRejections;
+
+    /**
+     * Creates a bulkhead.
+     *
+     * @param maxConcurrent concurrent calls allowed
+     * @param properties    queue, deadline and retry settings
+     * @param meterRegistry registry receiving the bulkhead metrics
+     */
+    public DbBulkhead(int maxConcurrent, BulkheadProperties properties, MeterRegistry meterRegistry) {
+        this.permits = new Semaphore(maxConcurrent, true);
+        this.maxQueue = properties.maxQueue();
+        this.maxWaitNanos = properties.maxWait().toNanos();
+        this.retryAfter = properties.retryAfter();
+        Gauge.builder("db.bulkhead.queue.depth", waiting, AtomicInteger::get)
+                .description("Callers waiting for a database slot")
+                .register(meterRegistry);
+        Gauge.builder("db.bulkhead.active", active, AtomicInteger::get)
+                .description("Database calls in flight")
+                .register(meterRegistry);
+        this.waitTimer = Timer.builder("db.bulkhead.wait")
+                .description("Time spent waiting for a database slot")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        this.queueFullRejections = Counter.builder("db.bulkhead.rejections")
+                .tag("reason", "queue_full")
+                .register(meterRegistry);
+        this.timeoutRejections = Counter.builder("db.bulkhead.rejections")
+                .tag("reason", "timeout")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Runs a database call inside the bulkhead. Its time, including the wait for a slot, is reported
+     * as the request's {@code db} phase.
+     *
+     * @param action the call to run
+     * @param <T>    the result type
+     * @return the call's result
+     * @throws ServiceUnavailableException if no slot became available in time
+     */
+    public <T> T call(Supplier<T> action) {
+        long start = System.nanoTime();
+        try (Permit ignored = acquire()) {
+            return action.get();
+        } finally {
+            RouteMetricsFilter.recordDbTime(System.nanoTime() - start);
+        }
+    }
+
+    /**
+     * Acquires a slot to be released by the caller, for work that outlives the handler such as a
+     * streamed response body.
+     *
+     * @return a permit releasing the slot when closed; closing more than once has no effect
+     * @throws ServiceUnavailableException if no slot became available in time
+     */
+    public Permit acquire() {
+        if (!permits.tryAcquire()) {
+            awaitPermit();
+        }
+        active.incrementAndGet();
+        return new Permit();
+    }
+
+    private void awaitPermit() {
+        if (waiting.incrementAndGet() > maxQueue) {
+            waiting.decrementAndGet();
+            queueFullRejections.increment();
+            throw new ServiceUnavailableException("Database is saturated, retry later", retryAfter);
+        }
+        long start = System.nanoTime();
+        boolean acquired = false;
+        try {
+            acquired = permits.tryAcquire(maxWaitNanos, TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            waiting.decrementAndGet();
+            waitTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+        if (!acquired) {
+            timeoutRejections.increment();
+            throw new ServiceUnavailableException("Database is saturated, retry later", retryAfter);
+        }
+    }
+
+    /**
+     * A held bulkhead slot.
+     */
+    public final class Permit implements AutoCloseable {
+
+        private final AtomicBoolean released = new AtomicBoolean();
+
+        private Permit() {
+        }
+
+        /**
+         * Releases the slot.
+         */
+        @Override
+        public void close() {
+            if (released.compareAndSet(false, true)) {
+                active.decrementAndGet();
+                permits.release();
+            }
+        }
+    }
+}
@@ -1,16 +1,26 @@
 package com.example.demo.util;
 
+import java.time.Duration;
 
 /**
  * Base HTTP exception carrying an HTTP status code alongside a message.
  *
  * <p>This sealed hierarchy centralizes common behavior for application-specific
  * HTTP errors and is mapped to responses by the functional router error handlers.</p>
+ *
+ * <p>These exceptions describe expected outcomes such as a missing id, so by default they do not
+ * capture a stack trace: filling one in dominates the cost of a 404. Enable
+ * {@link #captureStackTraces(boolean)} when debugging where they are thrown.</p>
  */
 public sealed class HttpException extends RuntimeException
-        permits ResourceNotFoundException, BadRequestException, UnauthorizedException, ForbiddenException, InternalServerErrorException {
+        permits ResourceNotFoundException, BadRequestException, UnauthorizedException, ForbiddenException,
+        InternalServerErrorException, ServiceUnavailableException, PreconditionFailedException,
+        NotAcceptableException, UnsupportedMediaTypeException, ConflictException {
+
+    private static volatile boolean captureStackTraces;
 
     private final int status;
+    private final Duration retryAfter;
 
     /**
      * Creates a new HttpException.
@@ -19,8 +29,29 @@ public sealed class HttpException extends RuntimeException
      * @param status  HTTP status code to return
      */
     public HttpException(String message, int status) {
-        super(message);
+        this(message, status, null);
+    }
+
+    /**
+     * Creates a new HttpException carrying a retry hint for the client.
+     *
+     * @param message    human-readable error message
+     * @param status     HTTP status code to return
+     * @param retryAfter value for the Retry-After header, or null for none
+     */
+    public HttpException(String message, int status, Duration retryAfter) {
+        super(message, null, false, captureStackTraces);
         this.status = status;
+        this.retryAfter = retryAfter;
+    }
+
+    /**
+     * Sets whether exceptions created from now on record their stack trace.
+     *
+     * @param enabled true to capture stack traces, false for stackless exceptions
+     */
+    public static void captureStackTraces(boolean enabled) {
+        captureStackTraces = enabled;
     }
 
     /**
@@ -31,4 +62,13 @@ public sealed class HttpException extends RuntimeException
     public int getStatus() {
         return status;
     }
-}
\ No newline at end of file
+
+    /**
+     * Gets how long the client should wait before retrying.
+     *
+     * @return the retry delay, or null when the error is not transient
+     */
+    public Duration getRetryAfter() {
+        return retryAfter;
+    }
+}
@@ -1,5 +1,6 @@
 package com.example.demo.util;
 
+import io.micrometer.core.instrument.MeterRegistry;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -11,23 +12,57 @@ import org.springframework.util.StringUtils;
 import org.springframework.web.filter.OncePerRequestFilter;
 import org.springframework.web.util.ContentCachingRequestWrapper;
 import org.springframework.web.util.ContentCachingResponseWrapper;
+import org.springframework.web.util.WebUtils;
 
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.nio.charset.Charset;
 import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+import java.util.concurrent.ThreadLocalRandom;
 
 /**
  * Logs HTTP request and response bodies using content-caching wrappers.
  * Works for both annotation-based and functional (WebMvc.fn) endpoints.
+ *
+ * <p>In {@link LoggingProperties.Mode#ASYNC} mode only a sample of requests is logged, bodies are
+ * truncated while being captured, non-textual or oversized bodies are skipped, and records are
+ * written by an {@link AsyncLogWriter} off the request thread.</p>
  */
 public class LoggingFilter extends OncePerRequestFilter {
 
     private static final Logger LOG = LoggerFactory.getLogger(LoggingFilter.class);
     private static final int MAX_PAYLOAD_LENGTH = 1024 * 1024; // 1MB cap
+    private static final byte[] NO_BODY = new byte[0];
+
+    private final LoggingProperties properties;
+    private final AsyncLogWriter asyncLogWriter;
 
     /**
-     * Filters each HTTP request once, wrapping it with content-caching wrappers so the
-     * request and response bodies can be logged after the processing chain completes.
+     * Creates a filter logging every exchange synchronously.
+     */
+    public LoggingFilter() {
+        this.properties = new LoggingProperties(LoggingProperties.Mode.SYNC, 1.0, MAX_PAYLOAD_LENGTH,
+                MAX_PAYLOAD_LENGTH, 0);
+        this.asyncLogWriter = null;
+    }
+
+    /**
+     * Creates a filter in the configured mode, starting a background writer in async mode.
+     *
+     * @param properties    the logging settings
+     * @param meterRegistry registry receiving the async queue metrics
+     */
+    public LoggingFilter(LoggingProperties properties, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.asyncLogWriter = properties.mode() == LoggingProperties.Mode.ASYNC
+                ? new AsyncLogWriter(properties.queueCapacity(), meterRegistry)
+                : null;
+    }
+
+    /**
+     * Filters each HTTP request once, logging it synchronously or handing it to the async writer.
      *
      * @param request  the incoming HTTP servlet request
      * @param response the HTTP servlet response
@@ -38,6 +73,41 @@ public class LoggingFilter extends OncePerRequestFilter {
     @Override
     protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
             throws ServletException, IOException {
+        if (asyncLogWriter == null) {
+            doFilterSync(request, response, filterChain);
+        } else if (ThreadLocalRandom.current().nextDouble() < properties.sampleRate()) {
+            doFilterAsync(request, response, filterChain);
+        } else {
+            filterChain.doFilter(request, response);
+        }
+    }
+
+    /**
+     * Stops the async writer, if any, once the queued records are written.
+     */
+    @Override
+    public void destroy() {
+        if (asyncLogWriter != null) {
+            try {
+                asyncLogWriter.close();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    /**
+     * Wraps the request and response with content-caching wrappers so the
+     * request and response bodies can be logged after the processing chain completes.
+     *
+     * @param request  the incoming HTTP servlet request
+     * @param response the HTTP servlet response
+     * @param filterChain the filter chain to continue processing
+     * @throws ServletException in case of general servlet errors
+     * @throws IOException in case of I/O errors
+     */
+    private void doFilterSync(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
         StopWatch stopWatch = new StopWatch();
         stopWatch.start("request_"+request.getRequestURI());
         // Wrap request/response to enable body caching
@@ -64,6 +134,89 @@ public class LoggingFilter extends OncePerRequestFilter {
         }
     }
 
+    /**
+     * Captures at most {@code maxBodyBytes} of each body while the exchange proceeds, without
+     * buffering the response, then queues the record for the background writer.
+     *
+     * @param request  the incoming HTTP servlet request
+     * @param response the HTTP servlet response
+     * @param filterChain the filter chain to continue processing
+     * @throws ServletException in case of general servlet errors
+     * @throws IOException in case of I/O errors
+     */
+    private void doFilterAsync(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        long start = System.nanoTime();
+        boolean captureRequest = isTextual(request.getContentType())
+                && request.getContentLengthLong() <= properties.maxCaptureContentLength();
+        ContentCachingRequestWrapper cachingRequest = captureRequest
+                ? new ContentCachingRequestWrapper(request, properties.maxBodyBytes())
+                : null;
+        TruncatingResponseWrapper truncatingResponse = new TruncatingResponseWrapper(response,
+                properties.maxBodyBytes(), properties.maxCaptureContentLength());
+        try {
+            filterChain.doFilter(cachingRequest != null ? cachingRequest : request, truncatingResponse);
+        } finally {
+            asyncLogWriter.offer(new AsyncLogWriter.LogRecord(
+                    request.getMethod(), request.getRequestURI(), request.getContentType(),
+                    request.getCharacterEncoding(),
+                    cachingRequest != null ? cachingRequest.getContentAsByteArray() : NO_BODY,
+                    response.getStatus(), response.getContentType(), response.getCharacterEncoding(),
+                    truncatingResponse.getCapturedBody(),
+                    (System.nanoTime() - start) / 1_000_000));
+        }
+    }
+
+    /**
+     * Tells whether a body of the given content type is worth logging as text.
+     *
+     * @param contentType the content type; may be null
+     * @return true for text, JSON, XML and form payloads
+     */
+    static boolean isTextual(String contentType) {
+        if (contentType == null) {
+            return true;
+        }
+        String type = contentType.toLowerCase(Locale.ROOT);
+        return type.startsWith("text/") || type.contains("json") || type.contains("xml")
+                || type.startsWith("application/x-www-form-urlencoded");
+    }
+
+    /**
+     * Returns an output stream that writes past the content-caching wrapper installed by this filter,
+     * so handlers streaming large bodies are flushed to the client as they go instead of being buffered
+     * in memory. Streamed bodies are therefore not included in the response log line.
+     *
+     * @param response the response handed to the handler, possibly wrapped by this filter
+     * @return the output stream of the underlying response
+     * @throws IOException in case of I/O errors
+     */
+    public static OutputStream streamingOutputStream(HttpServletResponse response) throws IOException {
+        ContentCachingResponseWrapper cachingResponse =
+                WebUtils.getNativeResponse(response, ContentCachingResponseWrapper.class);
+        if (cachingResponse == null) {
+            return response.getOutputStream();
+        }
+        // Flush anything cached so far, then write directly to the wrapped response
+        cachingResponse.copyBodyToResponse();
+        return cachingResponse.getResponse().getOutputStream();
+    }
+
+    /**
+     * Returns an input stream that reads past the content-caching wrapper installed by this filter,
+     * so handlers consuming large uploads incrementally do not copy them into the log buffer.
+     * Streamed bodies are therefore not included in the request log line.
+     *
+     * @param request the request handed to the handler, possibly wrapped by this filter
+     * @return the input stream of the underlying request
+     * @throws IOException in case of I/O errors
+     */
+    public static InputStream streamingInputStream(HttpServletRequest request) throws IOException {
+        ContentCachingRequestWrapper cachingRequest =
+                WebUtils.getNativeRequest(request, ContentCachingRequestWrapper.class);
+        return cachingRequest == null ? request.getInputStream() : cachingRequest.getRequest().getInputStream();
+    }
+
     /**
      * Reads the cached request body from the content-caching request wrapper.
      *
@@ -100,7 +253,7 @@ public class LoggingFilter extends OncePerRequestFilter {
      * @param encoding the character encoding name; may be null or blank
      * @return a Charset instance, UTF-8 by default
      */
-    private Charset getCharset(String encoding) {
+    static Charset getCharset(String encoding) {
         if (StringUtils.hasText(encoding)) {
             try {
                 return Charset.forName(encoding);
@@ -0,0 +1,28 @@
+package com.example.demo.util;
+
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+/**
+ * Settings for {@link LoggingFilter}, bound from {@code app.logging}.
+ *
+ * @param mode                    {@code SYNC} logs every exchange on the request thread (full bodies up to 1MB);
+ *                                {@code ASYNC} logs a sample off the request thread
+ * @param sampleRate              fraction of requests logged in async mode, from 0.0 to 1.0
+ * @param maxBodyBytes            number of body bytes kept per request and response in async mode
+ * @param maxCaptureContentLength requests declaring a larger Content-Length are logged without their body
+ * @param queueCapacity           maximum number of records waiting for the background writer; extra records are dropped
+ */
+public record LoggingProperties(@DefaultValue("SYNC") Mode mode,
+                                @DefaultValue("1.0") double sampleRate,
+                                @DefaultValue("1024") int maxBodyBytes,
+                                @DefaultValue("65536") long maxCaptureContentLength,
+                                @DefaultValue("8192") int queueCapacity) {
+
+    /**
+     * How the filter records exchanges.
+     */
+    public enum Mode {
+        SYNC,
+        ASYNC
+    }
+}
@@ -0,0 +1,15 @@
+package com.example.demo.util;
+
+/**
+ * 406 Not Acceptable exception.
+ */
+public final class NotAcceptableException extends HttpException {
+    /**
+     * Creates a NotAcceptableException with the given message.
+     *
+     * @param message description of the representations that can be produced
+     */
+    public NotAcceptableException(String message) {
+        super(message, 406);
+    }
+}
@@ -0,0 +1,15 @@
+package com.example.demo.util;
+
+/**
+ * 412 Precondition Failed exception.
+ */
+public final class PreconditionFailedException extends HttpException {
+    /**
+     * Creates a PreconditionFailedException with the given message.
+     *
+     * @param message description of the failed precondition
+     */
+    public PreconditionFailedException(String message) {
+        super(message, 412);
+    }
+}
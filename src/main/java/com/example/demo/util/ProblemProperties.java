@@ -0,0 +1,13 @@
+package com.example.demo.util;
+
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+/**
+ * Error response settings, bound from {@code app.errors}.
+ *
+ * @param stackTraces   whether {@link HttpException}s capture stack traces
+ * @param templateCache maximum number of distinct problem bodies kept pre-encoded
+ */
+public record ProblemProperties(@DefaultValue("false") boolean stackTraces,
+                                @DefaultValue("1024") long templateCache) {
+}
@@ -0,0 +1,114 @@
+package com.example.demo.util;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.servlet.function.ServerResponse;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.io.IOException;
+import java.time.Duration;
+
+/**
+ * RFC 7807 {@code application/problem+json} error responses built from cached, pre-encoded templates.
+ *
+ * <p>Error details are a small, mostly constant set ("Employee not found", "Database is saturated"),
+ * so each distinct status and detail is encoded once and later responses copy the same bytes to the
+ * output stream without building a body object or running Jackson.</p>
+ */
+public class ProblemResponses {
+
+    private final JsonMapper jsonMapper;
+    private final Cache<Template, byte[]> templates;
+
+    /**
+     * Creates the template cache.
+     *
+     * @param jsonMapper mapper used to encode a template the first time it is needed
+     * @param properties template cache size
+     */
+    public ProblemResponses(JsonMapper jsonMapper, ProblemProperties properties) {
+        this.jsonMapper = jsonMapper;
+        this.templates = Caffeine.newBuilder().maximumSize(properties.templateCache()).build();
+    }
+
+    /**
+     * Builds the problem response for an application exception, including its Retry-After hint.
+     *
+     * @param exception the exception
+     * @return the problem response
+     */
+    public ServerResponse of(HttpException exception) {
+        return of(HttpStatus.valueOf(exception.getStatus()), exception.getMessage(), exception.getRetryAfter());
+    }
+
+    /**
+     * Builds a problem response.
+     *
+     * @param status     the HTTP status
+     * @param detail     explanation specific to this problem; must not contain request data that varies without bound
+     * @param retryAfter value for the Retry-After header, or null for none
+     * @return the problem response
+     */
+    public ServerResponse of(HttpStatus status, String detail, Duration retryAfter) {
+        byte[] body = templates.get(new Template(status, detail), this::encode);
+        ServerResponse.BodyBuilder response = ServerResponse.status(status)
+                .contentType(MediaType.APPLICATION_PROBLEM_JSON)
+                .contentLength(body.length);
+        if (retryAfter != null) {
+            response.header(HttpHeaders.RETRY_AFTER, retryAfterSeconds(retryAfter));
+        }
+        return response.build((request, servletResponse) -> {
+            servletResponse.getOutputStream().write(body);
+            return null;
+        });
+    }
+
+    /**
+     * Writes the problem response for an exception raised by a streaming body before it wrote anything.
+     * Router error handlers never see such exceptions, as the handler has already returned its response,
+     * so the status and headers set for that response are replaced here.
+     *
+     * @param exception the exception
+     * @param response  the servlet response, not yet committed
+     * @throws IOException on I/O errors
+     */
+    public void write(HttpException exception, HttpServletResponse response) throws IOException {
+        HttpStatus status = HttpStatus.valueOf(exception.getStatus());
+        byte[] body = templates.get(new Template(status, exception.getMessage()), this::encode);
+        response.reset();
+        response.setStatus(status.value());
+        response.setContentType(MediaType.APPLICATION_PROBLEM_JSON_VALUE);
+        response.setContentLength(body.length);
+        if (exception.getRetryAfter() != null) {
+            response.setHeader(HttpHeaders.RETRY_AFTER, retryAfterSeconds(exception.getRetryAfter()));
+        }
+        response.getOutputStream().write(body);
+    }
+
+    private static String retryAfterSeconds(Duration retryAfter) {
+        return String.valueOf(Math.max(1, retryAfter.toSeconds()));
+    }
+
+    private byte[] encode(Template template) {
+        return jsonMapper.writeValueAsBytes(new Problem("about:blank", template.status().getReasonPhrase(),
+                template.status().value(), template.detail()));
+    }
+
+    private record Template(HttpStatus status, String detail) {
+    }
+
+    /**
+     * Problem details members defined by RFC 7807.
+     *
+     * @param type   problem type URI; {@code about:blank} means the status says it all
+     * @param title  short summary of the problem type
+     * @param status HTTP status code
+     * @param detail explanation specific to this occurrence
+     */
+    private record Problem(String type, String title, int status, String detail) {
+    }
+}
@@ -0,0 +1,33 @@
+package com.example.demo.util;
+
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+import java.util.Map;
+
+/**
+ * Per-client rate limits for the employee routes, bound from {@code app.rate-limit}.
+ *
+ * @param enabled           whether requests are rate limited
+ * @param requestsPerSecond sustained rate allowed per client and route
+ * @param burst             requests a client may send at once after being idle
+ * @param routes            overrides keyed by method and route pattern, e.g. {@code "[POST /employee/batch]"}
+ * @param idleTimeout       buckets unused for this long are evicted
+ * @param maxBuckets        client and route pairs tracked; beyond this, the least frequently used are evicted
+ */
+public record RateLimitProperties(@DefaultValue("false") boolean enabled,
+                                  @DefaultValue("100") double requestsPerSecond,
+                                  @DefaultValue("200") int burst,
+                                  @DefaultValue Map<String, Limit> routes,
+                                  @DefaultValue("10m") Duration idleTimeout,
+                                  @DefaultValue("100000") int maxBuckets) {
+
+    /**
+     * A route specific limit.
+     *
+     * @param requestsPerSecond sustained rate allowed per client
+     * @param burst             requests a client may send at once after being idle
+     */
+    public record Limit(double requestsPerSecond, int burst) {
+    }
+}
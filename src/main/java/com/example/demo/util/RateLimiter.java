@@ -0,0 +1,219 @@
+package com.example.demo.util;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.Cookie;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.util.MultiValueMap;
+import org.springframework.web.servlet.ModelAndView;
+import org.springframework.web.servlet.function.HandlerFilterFunction;
+import org.springframework.web.servlet.function.HandlerFunction;
+import org.springframework.web.servlet.function.RouterFunctions;
+import org.springframework.web.servlet.function.ServerRequest;
+import org.springframework.web.servlet.function.ServerResponse;
+import org.springframework.web.util.pattern.PathPattern;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * Router filter limiting each client's request rate per route.
+ *
+ * <p>Every client (see {@link ClientIds}) and route pattern pair has a token bucket implemented with
+ * the generic cell rate algorithm: its whole state is one theoretical arrival time in an
+ * {@link AtomicLong}, advanced by a compare-and-set, and buckets live in a Caffeine cache. The hot path
+ * therefore takes no lock and allocates only its cache key. Buckets unused for {@code idleTimeout} expire,
+ * and beyond {@code maxBuckets} the cache evicts the least frequently used ones, so a flood of new clients
+ * costs them their own fresh buckets rather than pushing everyone into a shared one.</p>
+ *
+ * <p>Responses carry {@code X-RateLimit-Limit} and {@code X-RateLimit-Remaining}; rejected requests get a
+ * 429 problem response with {@code Retry-After}.</p>
+ */
+public class RateLimiter implements HandlerFilterFunction<ServerResponse, ServerResponse> {
+
+    private static final String LIMIT_HEADER = "X-RateLimit-Limit";
+    private static final String REMAINING_HEADER = "X-RateLimit-Remaining";
+    private static final String UNMATCHED = "UNMATCHED";
+
+    private final ProblemResponses problemResponses;
+    private final LongSupplier nanoClock;
+    private final Policy defaultPolicy;
+    private final Map<RouteKey, Policy> routePolicies;
+    private final Cache<BucketKey, Bucket> buckets;
+    private final Meter.MeterProvider<Counter> rejections;
+
+    /**
+     * Creates the rate limiter.
+     *
+     * @param properties       default and per-route limits, eviction settings
+     * @param problemResponses builds the 429 responses
+     * @param meterRegistry    registry receiving the rejection counter and bucket gauge
+     */
+    public RateLimiter(RateLimitProperties properties, ProblemResponses problemResponses, MeterRegistry meterRegistry) {
+        this(properties, problemResponses, meterRegistry, System::nanoTime);
+    }
+
+    RateLimiter(RateLimitProperties properties, ProblemResponses problemResponses, MeterRegistry meterRegistry,
+                LongSupplier nanoClock) {
+        this.problemResponses = problemResponses;
+        this.nanoClock = nanoClock;
+        this.defaultPolicy = Policy.of(properties.requestsPerSecond(), properties.burst());
+        this.routePolicies = new HashMap<>();
+        properties.routes().forEach((route, limit) -> {
+            String[] parts = route.trim().split("\\s+", 2);
+            if (parts.length != 2) {
+                throw new IllegalArgumentException("Rate limit route must be 'METHOD /pattern': " + route);
+            }
+            routePolicies.put(new RouteKey(parts[0], parts[1]), Policy.of(limit.requestsPerSecond(), limit.burst()));
+        });
+        this.buckets = Caffeine.newBuilder()
+                .maximumSize(properties.maxBuckets())
+                .expireAfterAccess(properties.idleTimeout())
+                .ticker(nanoClock::getAsLong)
+                .build();
+        this.rejections = Counter.builder("http.rate_limit.rejections")
+                .description("Requests rejected with 429 by the per-client rate limiter")
+                .withRegistry(meterRegistry);
+        Gauge.builder("http.rate_limit.buckets", buckets, Cache::estimatedSize)
+                .description("Client and route pairs currently tracked by the rate limiter")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Admits the request if its client's bucket for the route has a token, or answers 429.
+     *
+     * @param request the request, already matched to a route
+     * @param next    the handler
+     * @return the handler's response, or a 429 problem response
+     * @throws Exception if the handler fails
+     */
+    @Override
+    public ServerResponse filter(ServerRequest request, HandlerFunction<ServerResponse> next) throws Exception {
+        String method = request.method().name();
+        String route = request.attributes().get(RouterFunctions.MATCHING_PATTERN_ATTRIBUTE) instanceof PathPattern pattern
+                ? pattern.getPatternString() : UNMATCHED;
+        long now = nanoClock.getAsLong();
+        Bucket bucket = bucket(ClientIds.of(request.servletRequest()), method, route, now);
+        long remaining = bucket.tryAcquire(now);
+        if (remaining < 0) {
+            rejections.withTags("route", route).increment();
+            Duration retryAfter = Duration.ofNanos(-remaining);
+            return new RateLimitedResponse(problemResponses.of(HttpStatus.TOO_MANY_REQUESTS,
+                    "Rate limit exceeded, retry later", retryAfter), bucket.policy.burst, 0);
+        }
+        return new RateLimitedResponse(next.handle(request), bucket.policy.burst, remaining);
+    }
+
+    private Bucket bucket(String client, String method, String route, long now) {
+        return buckets.get(new BucketKey(client, method, route),
+                k -> new Bucket(routePolicies.getOrDefault(new RouteKey(k.method(), k.route()), defaultPolicy), now));
+    }
+
+    /**
+     * Number of client and route pairs tracked, after pending expiry and eviction.
+     *
+     * @return the bucket count
+     */
+    long bucketCount() {
+        buckets.cleanUp();
+        return buckets.estimatedSize();
+    }
+
+    /**
+     * Rate and burst of a bucket in the units the algorithm uses.
+     *
+     * @param intervalNanos  time between two tokens at the sustained rate
+     * @param toleranceNanos how far ahead of now the theoretical arrival time may run, i.e. burst intervals
+     * @param burst          bucket capacity, reported as the limit
+     */
+    private record Policy(long intervalNanos, long toleranceNanos, int burst) {
+
+        static Policy of(double requestsPerSecond, int burst) {
+            long interval = Math.max(1, Math.round(TimeUnit.SECONDS.toNanos(1) / requestsPerSecond));
+            return new Policy(interval, interval * burst, burst);
+        }
+    }
+
+    private record RouteKey(String method, String route) {
+    }
+
+    private record BucketKey(String client, String method, String route) {
+    }
+
+    /**
+     * A lock-free token bucket holding only its theoretical arrival time.
+     */
+    private static final class Bucket {
+
+        private final Policy policy;
+        private final AtomicLong theoreticalArrival;
+
+        Bucket(Policy policy, long now) {
+            this.policy = policy;
+            this.theoreticalArrival = new AtomicLong(now);
+        }
+
+        /**
+         * Takes a token.
+         *
+         * @param now current time in nanoseconds
+         * @return the tokens left, or minus the nanoseconds until a token is available when there is none
+         */
+        long tryAcquire(long now) {
+            while (true) {
+                long current = theoreticalArrival.get();
+                long next = Math.max(current, now) + policy.intervalNanos;
+                long wait = next - now - policy.toleranceNanos;
+                if (wait > 0) {
+                    return -wait;
+                }
+                if (theoreticalArrival.compareAndSet(current, next)) {
+                    return (policy.toleranceNanos - (next - now)) / policy.intervalNanos;
+                }
+            }
+        }
+    }
+
+    /**
+     * Delegating response adding the rate limit headers.
+     */
+    private record RateLimitedResponse(ServerResponse delegate, int limit, long remaining) implements ServerResponse {
+
+        @Override
+        public HttpStatusCode statusCode() {
+            return delegate.statusCode();
+        }
+
+        @Override
+        public HttpHeaders headers() {
+            return delegate.headers();
+        }
+
+        @Override
+        public MultiValueMap<String, Cookie> cookies() {
+            return delegate.cookies();
+        }
+
+        @Override
+        public ModelAndView writeTo(HttpServletRequest request, HttpServletResponse response, Context context)
+                throws ServletException, IOException {
+            response.setHeader(LIMIT_HEADER, Integer.toString(limit));
+            response.setHeader(REMAINING_HEADER, Long.toString(remaining));
+            return delegate.writeTo(request, response, context);
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package com.example.demo.util;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.core.Ordered;
+import org.springframework.http.HttpMethod;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+
+/**
+ * Read-your-writes consistency on top of replica routing.
+ *
+ * <p>A client that has just written is remembered for {@code readYourWritesWindow}; until then its
+ * requests are pinned to the primary through {@link ReplicaPool#pinToPrimary(boolean)}, so it never
+ * reads a replica that has not yet caught up with its own write. Writes themselves are pinned too, so
+ * reads made while handling them see the primary. Clients are told apart by remote address, see
+ * {@link ClientIds}.</p>
+ */
+public class ReadYourWritesFilter extends OncePerRequestFilter implements Ordered {
+
+    private final Cache<String, Boolean> recentWriters;
+
+    /**
+     * Creates the filter.
+     *
+     * @param properties pinning window and number of clients tracked
+     */
+    public ReadYourWritesFilter(ReplicaProperties properties) {
+        this.recentWriters = Caffeine.newBuilder()
+                .maximumSize(properties.maxTrackedClients())
+                .expireAfterWrite(properties.readYourWritesWindow())
+                .build();
+    }
+
+    /**
+     * Runs inside the metrics and SQL statistics filters.
+     *
+     * @return the filter order
+     */
+    @Override
+    public int getOrder() {
+        return Ordered.HIGHEST_PRECEDENCE + 3;
+    }
+
+    /**
+     * Pins the request to the primary when it writes or when its client wrote recently, and remembers
+     * the client after a successful write.
+     *
+     * @param request     the incoming HTTP servlet request
+     * @param response    the HTTP servlet response
+     * @param filterChain the filter chain to continue processing
+     * @throws ServletException in case of general servlet errors
+     * @throws IOException      in case of I/O errors
+     */
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        String client = ClientIds.of(request);
+        boolean write = isWrite(request.getMethod());
+        ReplicaPool.pinToPrimary(write || recentWriters.getIfPresent(client) != null);
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            ReplicaPool.pinToPrimary(false);
+            if (write && response.getStatus() < 400) {
+                recentWriters.put(client, Boolean.TRUE);
+            }
+        }
+    }
+
+    private static boolean isWrite(String method) {
+        return !HttpMethod.GET.matches(method) && !HttpMethod.HEAD.matches(method)
+                && !HttpMethod.OPTIONS.matches(method);
+    }
+}
@@ -0,0 +1,231 @@
+package com.example.demo.util;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.datasource.AbstractDataSource;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Data source for read-only connections, spreading them over a set of replicas.
+ *
+ * <p>Each connection goes to a healthy replica picked round-robin or by fewest connections in use.
+ * A replica that fails to hand out a connection is marked down at once and the next one is tried; a
+ * background probe marks replicas down or up again every {@code healthCheckInterval}. With no healthy
+ * replica, reads fail over to the primary. Reads are also sent to the primary while the current thread
+ * is pinned by {@link ReadYourWritesFilter}, so clients see their own recent writes despite replica
+ * lag.</p>
+ */
+public class ReplicaPool extends AbstractDataSource implements AutoCloseable {
+
+    private static final Logger LOG = LoggerFactory.getLogger(ReplicaPool.class);
+    private static final ThreadLocal<Boolean> PINNED = new ThreadLocal<>();
+
+    private final DataSource primary;
+    private final List<Replica> replicas;
+    private final ReplicaProperties.Selection selection;
+    private final int healthCheckTimeoutSeconds;
+    private final AtomicInteger next = new AtomicInteger();
+    private final ScheduledExecutorService healthChecker;
+    private final Counter replicaConnections;
+    private final Counter pinnedConnections;
+    private final Counter failoverConnections;
+
+    /**
+     * Creates the pool and starts probing the replicas.
+     *
+     * @param primary       data source used when pinned or when no replica is healthy
+     * @param replicas      the replica data sources, closed with this pool
+     * @param properties    selection and health check settings
+     * @param meterRegistry registry receiving the routing counters and healthy replica gauge
+     */
+    public ReplicaPool(DataSource primary, List<DataSource> replicas, ReplicaProperties properties,
+                       MeterRegistry meterRegistry) {
+        this.primary = primary;
+        this.replicas = new ArrayList<>(replicas.size());
+        for (int i = 0; i < replicas.size(); i++) {
+            this.replicas.add(new Replica("replica-" + i, replicas.get(i)));
+        }
+        this.selection = properties.selection();
+        this.healthCheckTimeoutSeconds = (int) Math.max(1, properties.healthCheckTimeout().toSeconds());
+        this.replicaConnections = connections(meterRegistry, "replica");
+        this.pinnedConnections = connections(meterRegistry, "pinned");
+        this.failoverConnections = connections(meterRegistry, "failover");
+        Gauge.builder("db.replicas.healthy", this.replicas, all -> all.stream().filter(r -> r.healthy).count())
+                .description("Replicas currently receiving read-only connections")
+                .register(meterRegistry);
+        this.healthChecker = Executors.newSingleThreadScheduledExecutor(
+                Thread.ofPlatform().name("replica-health").daemon().factory());
+        long interval = properties.healthCheckInterval().toMillis();
+        healthChecker.scheduleWithFixedDelay(this::checkHealth, interval, interval, TimeUnit.MILLISECONDS);
+    }
+
+    private static Counter connections(MeterRegistry meterRegistry, String route) {
+        return Counter.builder("db.read.connections")
+                .description("Read-only connections by where they were routed")
+                .tag("route", route)
+                .register(meterRegistry);
+    }
+
+    /**
+     * Sends the current thread's read-only connections to the primary, or stops doing so.
+     *
+     * @param pinned true to pin, false to clear
+     */
+    public static void pinToPrimary(boolean pinned) {
+        if (pinned) {
+            PINNED.set(Boolean.TRUE);
+        } else {
+            PINNED.remove();
+        }
+    }
+
+    /**
+     * Gets a read-only connection from a healthy replica, or from the primary when pinned or when
+     * every replica is down.
+     *
+     * @return the connection
+     * @throws SQLException if the primary cannot provide a connection either
+     */
+    @Override
+    public Connection getConnection() throws SQLException {
+        if (PINNED.get() != null) {
+            pinnedConnections.increment();
+            return primary.getConnection();
+        }
+        int size = replicas.size();
+        boolean leastConnections = selection == ReplicaProperties.Selection.LEAST_CONNECTIONS;
+        int start = leastConnections ? leastBusy() : 0;
+        for (int i = 0; i < size; i++) {
+            // Round-robin advances past down replicas too, so the healthy ones still share reads evenly
+            Replica replica = replicas.get(leastConnections
+                    ? (start + i) % size : Math.floorMod(next.getAndIncrement(), size));
+            if (!replica.healthy) {
+                continue;
+            }
+            try {
+                Connection connection = replica.dataSource.getConnection();
+                replicaConnections.increment();
+                return connection;
+            } catch (SQLException e) {
+                markDown(replica, e);
+            }
+        }
+        failoverConnections.increment();
+        return primary.getConnection();
+    }
+
+    /**
+     * Per-call credentials are not supported; replicas use the credentials of their pools.
+     *
+     * @param username ignored
+     * @param password ignored
+     * @return never
+     * @throws SQLException always
+     */
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        throw new SQLFeatureNotSupportedException("Replica connections use the pool credentials");
+    }
+
+    private int leastBusy() {
+        int best = 0;
+        int fewest = Integer.MAX_VALUE;
+        for (int i = 0; i < replicas.size(); i++) {
+            Replica replica = replicas.get(i);
+            if (replica.healthy) {
+                int active = activeConnections(replica.dataSource);
+                if (active < fewest) {
+                    fewest = active;
+                    best = i;
+                }
+            }
+        }
+        return best;
+    }
+
+    private static int activeConnections(DataSource dataSource) {
+        if (dataSource instanceof HikariDataSource hikari) {
+            HikariPoolMXBean pool = hikari.getHikariPoolMXBean();
+            return pool != null ? pool.getActiveConnections() : 0;
+        }
+        return 0;
+    }
+
+    /**
+     * Probes every replica with a validation query and updates its health.
+     */
+    void checkHealth() {
+        for (Replica replica : replicas) {
+            try (Connection connection = replica.dataSource.getConnection()) {
+                if (connection.isValid(healthCheckTimeoutSeconds)) {
+                    if (!replica.healthy) {
+                        LOG.warn("Replica {} is back up", replica.name);
+                        replica.healthy = true;
+                    }
+                } else {
+                    markDown(replica, null);
+                }
+            } catch (SQLException e) {
+                markDown(replica, e);
+            } catch (RuntimeException e) {
+                // Keep the scheduled probe alive whatever a driver throws
+                markDown(replica, e);
+            }
+        }
+    }
+
+    private static void markDown(Replica replica, Exception cause) {
+        if (replica.healthy) {
+            replica.healthy = false;
+            LOG.warn("Replica {} is down, routing its reads elsewhere: {}", replica.name,
+                    cause != null ? cause.getMessage() : "validation failed");
+        }
+    }
+
+    /**
+     * Stops the health checks and closes the replica pools.
+     */
+    @Override
+    public void close() {
+        healthChecker.shutdownNow();
+        for (Replica replica : replicas) {
+            if (replica.dataSource instanceof AutoCloseable closeable) {
+                try {
+                    closeable.close();
+                } catch (Exception e) {
+                    LOG.warn("Failed to close replica {}", replica.name, e);
+                }
+            }
+        }
+    }
+
+    /**
+     * A replica and its last known health.
+     */
+    private static final class Replica {
+
+        private final String name;
+        private final DataSource dataSource;
+        private volatile boolean healthy = true;
+
+        Replica(String name, DataSource dataSource) {
+            this.name = name;
+            this.dataSource = dataSource;
+        }
+    }
+}
@@ -0,0 +1,47 @@
+package com.example.demo.util;
+
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Read-replica routing settings, bound from {@code app.datasource.replicas}. Enabled by the
+ * {@code replicas} profile.
+ *
+ * @param enabled              whether read-only transactions are routed to the replicas
+ * @param urls                 JDBC URLs of the replicas, one connection pool each
+ * @param username             replica user; null to use the primary's
+ * @param password             replica password; null to use the primary's
+ * @param maximumPoolSize      connections per replica pool
+ * @param selection            how a replica is picked for each read-only connection
+ * @param healthCheckInterval  how often every replica is probed; unhealthy replicas are skipped until they recover
+ * @param healthCheckTimeout   longest a probe may take before the replica is considered down
+ * @param readYourWritesWindow how long a client's reads stay on the primary after one of its writes
+ * @param maxTrackedClients    recent writers remembered for read-your-writes pinning
+ */
+public record ReplicaProperties(@DefaultValue("false") boolean enabled,
+                                @DefaultValue List<String> urls,
+                                String username,
+                                String password,
+                                @DefaultValue("10") int maximumPoolSize,
+                                @DefaultValue("round-robin") Selection selection,
+                                @DefaultValue("5s") Duration healthCheckInterval,
+                                @DefaultValue("1s") Duration healthCheckTimeout,
+                                @DefaultValue("2s") Duration readYourWritesWindow,
+                                @DefaultValue("100000") int maxTrackedClients) {
+
+    /**
+     * Replica selection strategies.
+     */
+    public enum Selection {
+        /**
+         * Cycle through the healthy replicas.
+         */
+        ROUND_ROBIN,
+        /**
+         * Pick the healthy replica with the fewest connections in use.
+         */
+        LEAST_CONNECTIONS
+    }
+}
@@ -0,0 +1,108 @@
+package com.example.demo.util;
+
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.core.Ordered;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * Wraps the primary {@link DataSource} bean so that read-only transactions are served by the replicas.
+ *
+ * <p>The wrapper is a {@link LazyConnectionDataSourceProxy}: the physical connection is only fetched at
+ * the first statement, after the transaction has marked it read-only, and read-only connections come
+ * from a {@link ReplicaPool}. Read-write transactions and plain JDBC work stay on the primary.</p>
+ *
+ * <p>Runs before other post-processors so that wrappers such as {@link SqlObservabilityPostProcessor}
+ * see the routed connections of both the primary and the replicas.</p>
+ */
+public class ReplicaRoutingPostProcessor implements BeanPostProcessor, Ordered {
+
+    private final ReplicaProperties properties;
+    private final Supplier<MeterRegistry> meterRegistry;
+
+    /**
+     * Creates the post-processor.
+     *
+     * @param properties    replica URLs, pool sizes and routing settings
+     * @param meterRegistry supplies the registry once the primary data source is created
+     */
+    public ReplicaRoutingPostProcessor(ReplicaProperties properties, Supplier<MeterRegistry> meterRegistry) {
+        this.properties = properties;
+        this.meterRegistry = meterRegistry;
+    }
+
+    /**
+     * Runs first among the ordered post-processors.
+     *
+     * @return the post-processor order
+     */
+    @Override
+    public int getOrder() {
+        return Ordered.HIGHEST_PRECEDENCE;
+    }
+
+    /**
+     * Wraps the primary data source when replicas are configured.
+     *
+     * @param bean     the initialized bean
+     * @param beanName the bean name
+     * @return the routing data source for the primary, the bean itself otherwise
+     */
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+        if (bean instanceof DataSource primary && !(bean instanceof RoutingDataSource) && !properties.urls().isEmpty()) {
+            List<DataSource> replicas = new ArrayList<>(properties.urls().size());
+            for (int i = 0; i < properties.urls().size(); i++) {
+                replicas.add(replica(primary, properties.urls().get(i), i));
+            }
+            return new RoutingDataSource(primary, new ReplicaPool(primary, replicas, properties, meterRegistry.get()));
+        }
+        return bean;
+    }
+
+    private HikariDataSource replica(DataSource primary, String url, int index) {
+        HikariConfig config = new HikariConfig();
+        config.setPoolName("replica-" + index);
+        config.setJdbcUrl(url);
+        config.setMaximumPoolSize(properties.maximumPoolSize());
+        config.setReadOnly(true);
+        String username = properties.username();
+        String password = properties.password();
+        if (username == null && primary instanceof HikariDataSource hikari) {
+            username = hikari.getUsername();
+            password = hikari.getPassword();
+        }
+        config.setUsername(username);
+        config.setPassword(password);
+        return new HikariDataSource(config);
+    }
+
+    /**
+     * The routing proxy, closing the primary and the replicas with the application context.
+     */
+    static final class RoutingDataSource extends LazyConnectionDataSourceProxy implements AutoCloseable {
+
+        private final ReplicaPool replicaPool;
+
+        RoutingDataSource(DataSource primary, ReplicaPool replicaPool) {
+            super(primary);
+            this.replicaPool = replicaPool;
+            setReadOnlyDataSource(replicaPool);
+        }
+
+        @Override
+        public void close() throws Exception {
+            replicaPool.close();
+            if (getTargetDataSource() instanceof AutoCloseable primary) {
+                primary.close();
+            }
+        }
+    }
+}
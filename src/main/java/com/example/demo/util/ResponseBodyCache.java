@@ -0,0 +1,173 @@
+package com.example.demo.util;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.util.MimeTypeUtils;
+import org.springframework.web.servlet.function.ServerRequest;
+import org.springframework.web.servlet.function.ServerResponse;
+import tools.jackson.databind.ObjectMapper;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * Cache of already-encoded response bodies for hot GETs.
+ *
+ * <p>Entries hold the encoded bytes together with their content type and ETag, keyed by route, resource
+ * id and encoding. A lookup presents the ETag of the current resource version, so a stale entry is
+ * re-encoded rather than served; writers still evict so replaced versions do not occupy space. A hit
+ * is written straight to the servlet output stream, skipping object mapping and Jackson generation.</p>
+ *
+ * <p>Only encodings this cache can produce itself are negotiated here; requests accepting none of
+ * them should fall back to the regular message converters.</p>
+ */
+public class ResponseBodyCache {
+
+    private final Map<MediaType, ObjectMapper> encoders;
+    private final Cache<Key, EncodedBody> cache;
+    private final boolean enabled;
+
+    /**
+     * Creates the cache and binds its statistics to the meter registry.
+     *
+     * @param encoders      mapper per supported content type; the first entry is used when any type is accepted
+     * @param properties    size and enablement settings
+     * @param meterRegistry registry receiving the cache metrics
+     */
+    public ResponseBodyCache(Map<MediaType, ObjectMapper> encoders, ResponseCacheProperties properties,
+                             MeterRegistry meterRegistry) {
+        this.encoders = new LinkedHashMap<>(encoders);
+        this.enabled = properties.enabled();
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(properties.maximumSize())
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "response.body");
+    }
+
+    /**
+     * Picks the encoding for a request from its {@code Accept} header.
+     *
+     * @param request the request
+     * @return a supported content type, or null when the cache is disabled or none is acceptable
+     */
+    public MediaType negotiate(ServerRequest request) {
+        if (!enabled) {
+            return null;
+        }
+        List<MediaType> accepted = new ArrayList<>(request.headers().accept());
+        if (accepted.isEmpty()) {
+            return encoders.keySet().iterator().next();
+        }
+        MimeTypeUtils.sortBySpecificity(accepted);
+        for (MediaType acceptable : accepted) {
+            if (acceptable.getQualityValue() == 0) {
+                continue;
+            }
+            for (MediaType supported : encoders.keySet()) {
+                if (acceptable.isCompatibleWith(supported)) {
+                    return supported;
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Gets the encoded body of a resource version, encoding and caching it when absent or stale.
+     *
+     * @param route     name of the route the body belongs to
+     * @param id        resource id within the route
+     * @param eTag      ETag of the current resource version
+     * @param mediaType a content type returned by {@link #negotiate(ServerRequest)}
+     * @param body      supplies the value to encode on a miss
+     * @return the encoded body
+     */
+    public EncodedBody get(String route, Object id, String eTag, MediaType mediaType, Supplier<?> body) {
+        Key key = new Key(route, id, mediaType);
+        EncodedBody cached = cache.getIfPresent(key);
+        if (cached != null && eTag.equals(cached.eTag())) {
+            return cached;
+        }
+        EncodedBody encoded = encode(body.get(), mediaType, eTag);
+        cache.put(key, encoded);
+        return encoded;
+    }
+
+    /**
+     * Encodes a constant value once per supported content type, for payloads that never change.
+     *
+     * @param body the value to encode
+     * @return the encoded bodies by content type, in negotiation order
+     */
+    public Map<MediaType, EncodedBody> encodeAll(Object body) {
+        Map<MediaType, EncodedBody> encoded = new LinkedHashMap<>();
+        encoders.keySet().forEach(mediaType -> encoded.put(mediaType, encode(body, mediaType, null)));
+        return encoded;
+    }
+
+    /**
+     * Drops every encoding of a resource.
+     *
+     * @param route name of the route the body belongs to
+     * @param id    resource id within the route
+     */
+    public void evict(String route, Object id) {
+        encoders.keySet().forEach(mediaType -> cache.invalidate(new Key(route, id, mediaType)));
+    }
+
+    /**
+     * Drops every encoding of several resources.
+     *
+     * @param route name of the route the bodies belong to
+     * @param ids   resource ids within the route
+     */
+    public void evictAll(String route, Collection<?> ids) {
+        ids.forEach(id -> evict(route, id));
+    }
+
+    /**
+     * Builds a 200 response that copies the encoded bytes to the output stream as-is.
+     *
+     * @param body the encoded body
+     * @return the response, varying by {@code Accept}
+     */
+    public static ServerResponse ok(EncodedBody body) {
+        ServerResponse.BodyBuilder response = ServerResponse.ok()
+                .contentType(body.contentType())
+                .contentLength(body.bytes().length)
+                .varyBy(HttpHeaders.ACCEPT);
+        if (body.eTag() != null) {
+            response.eTag(body.eTag());
+        }
+        return response.build((request, servletResponse) -> {
+            servletResponse.getOutputStream().write(body.bytes());
+            return null;
+        });
+    }
+
+    private EncodedBody encode(Object body, MediaType mediaType, String eTag) {
+        return new EncodedBody(encoders.get(mediaType).writeValueAsBytes(body), mediaType, eTag);
+    }
+
+    private record Key(String route, Object id, MediaType mediaType) {
+    }
+
+    /**
+     * A response body in its final wire form.
+     *
+     * @param bytes       the encoded body; never modified after creation
+     * @param contentType content type of the bytes
+     * @param eTag        ETag of the encoded resource version, or null for constant payloads
+     */
+    public record EncodedBody(byte[] bytes, MediaType contentType, String eTag) {
+    }
+}
@@ -0,0 +1,13 @@
+package com.example.demo.util;
+
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+/**
+ * Settings for {@link ResponseBodyCache}, bound from {@code app.response-cache}.
+ *
+ * @param enabled     whether hot GETs are answered from pre-encoded bodies
+ * @param maximumSize maximum number of encoded bodies kept, counting each resource and encoding separately
+ */
+public record ResponseCacheProperties(@DefaultValue("true") boolean enabled,
+                                      @DefaultValue("10000") long maximumSize) {
+}
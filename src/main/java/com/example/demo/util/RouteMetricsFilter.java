@@ -0,0 +1,181 @@
+package com.example.demo.util;
+
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.Cookie;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.core.Ordered;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.util.MultiValueMap;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.ModelAndView;
+import org.springframework.web.servlet.function.HandlerFilterFunction;
+import org.springframework.web.servlet.function.RouterFunctions;
+import org.springframework.web.servlet.function.ServerResponse;
+import org.springframework.web.util.pattern.PathPattern;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Records a latency histogram per route pattern, method and status for the functional router,
+ * split into phases.
+ *
+ * <p>The servlet filter times the whole exchange ({@code phase=total}). Database calls made through
+ * {@link DbBulkhead#call} on the request thread, including the wait for a slot, report their time via
+ * {@link #recordDbTime(long)} ({@code phase=db}). The companion {@link #phaseTiming()} router filter
+ * times the rest of the handler function, i.e. body parsing, validation and cache hits
+ * ({@code phase=handler}), and the writing of the response body ({@code phase=serialization}). Routes
+ * are tagged by pattern, e.g. {@code /employee/{id}}, never by raw URI. All phases are published as
+ * {@code http.route.duration} with percentile histograms.</p>
+ */
+public class RouteMetricsFilter extends OncePerRequestFilter implements Ordered {
+
+    private static final String DB_NANOS_ATTRIBUTE = RouteMetricsFilter.class.getName() + ".dbNanos";
+    private static final String HANDLER_NANOS_ATTRIBUTE = RouteMetricsFilter.class.getName() + ".handlerNanos";
+    private static final String SERIALIZATION_NANOS_ATTRIBUTE = RouteMetricsFilter.class.getName() + ".serializationNanos";
+    private static final String UNMATCHED = "UNMATCHED";
+
+    private final Meter.MeterProvider<Timer> timers;
+
+    /**
+     * Creates the filter.
+     *
+     * @param meterRegistry registry receiving the route timers
+     */
+    public RouteMetricsFilter(MeterRegistry meterRegistry) {
+        this.timers = Timer.builder("http.route.duration")
+                .description("Server-side time per route, split into total, db, handler and serialization phases")
+                .publishPercentileHistogram()
+                .withRegistry(meterRegistry);
+    }
+
+    /**
+     * Runs ahead of the other application filters so their overhead is part of the total.
+     *
+     * @return the filter order
+     */
+    @Override
+    public int getOrder() {
+        return Ordered.HIGHEST_PRECEDENCE + 1;
+    }
+
+    /**
+     * Times the exchange and records every phase measured during it.
+     *
+     * @param request     the incoming HTTP servlet request
+     * @param response    the HTTP servlet response
+     * @param filterChain the filter chain to continue processing
+     * @throws ServletException in case of general servlet errors
+     * @throws IOException      in case of I/O errors
+     */
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        long start = System.nanoTime();
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            Tags tags = Tags.of("route", routeOf(request),
+                    "method", request.getMethod(),
+                    "status", String.valueOf(response.getStatus()));
+            record(tags, "total", System.nanoTime() - start);
+            record(tags, "db", request.getAttribute(DB_NANOS_ATTRIBUTE));
+            record(tags, "handler", request.getAttribute(HANDLER_NANOS_ATTRIBUTE));
+            record(tags, "serialization", request.getAttribute(SERIALIZATION_NANOS_ATTRIBUTE));
+        }
+    }
+
+    /**
+     * Router filter timing the handler, less its database time, and the body serialization of each
+     * routed request. Apply it to the composed router so every route is covered.
+     *
+     * @return a handler filter function storing the phase timings on the request
+     */
+    public static HandlerFilterFunction<ServerResponse, ServerResponse> phaseTiming() {
+        return (request, next) -> {
+            long start = System.nanoTime();
+            ServerResponse response;
+            try {
+                response = next.handle(request);
+            } finally {
+                long db = request.attributes().get(DB_NANOS_ATTRIBUTE) instanceof Long nanos ? nanos : 0L;
+                request.attributes().put(HANDLER_NANOS_ATTRIBUTE, Math.max(0L, System.nanoTime() - start - db));
+            }
+            return new TimedServerResponse(response);
+        };
+    }
+
+    /**
+     * Adds database time to the current request's {@code db} phase. Calls made off the request
+     * thread, e.g. by background import writers, are not attributed to any request.
+     *
+     * @param nanos the elapsed time of one database call
+     */
+    public static void recordDbTime(long nanos) {
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        if (attributes != null) {
+            Object previous = attributes.getAttribute(DB_NANOS_ATTRIBUTE, RequestAttributes.SCOPE_REQUEST);
+            attributes.setAttribute(DB_NANOS_ATTRIBUTE, previous instanceof Long total ? total + nanos : nanos,
+                    RequestAttributes.SCOPE_REQUEST);
+        }
+    }
+
+    private void record(Tags tags, String phase, Object nanos) {
+        if (nanos instanceof Long elapsed) {
+            timers.withTags(tags.and("phase", phase)).record(elapsed, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    /**
+     * Gets the route pattern the request was dispatched to.
+     *
+     * @param request the request, after the router has handled it
+     * @return the matched pattern, or {@code UNMATCHED}
+     */
+    static String routeOf(HttpServletRequest request) {
+        return request.getAttribute(RouterFunctions.MATCHING_PATTERN_ATTRIBUTE) instanceof PathPattern pattern
+                ? pattern.getPatternString()
+                : UNMATCHED;
+    }
+
+    /**
+     * Delegating response that measures how long writing its body takes.
+     */
+    private record TimedServerResponse(ServerResponse delegate) implements ServerResponse {
+
+        @Override
+        public HttpStatusCode statusCode() {
+            return delegate.statusCode();
+        }
+
+        @Override
+        public HttpHeaders headers() {
+            return delegate.headers();
+        }
+
+        @Override
+        public MultiValueMap<String, Cookie> cookies() {
+            return delegate.cookies();
+        }
+
+        @Override
+        public ModelAndView writeTo(HttpServletRequest request, HttpServletResponse response, Context context)
+                throws ServletException, IOException {
+            long start = System.nanoTime();
+            try {
+                return delegate.writeTo(request, response, context);
+            } finally {
+                request.setAttribute(SERIALIZATION_NANOS_ATTRIBUTE, System.nanoTime() - start);
+            }
+        }
+    }
+}
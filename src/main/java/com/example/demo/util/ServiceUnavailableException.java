@@ -0,0 +1,18 @@
+package com.example.demo.util;
+
+import java.time.Duration;
+
+/**
+ * 503 Service Unavailable exception, raised when the service sheds load.
+ */
+public final class ServiceUnavailableException extends HttpException {
+    /**
+     * Creates a ServiceUnavailableException with the given message and retry hint.
+     *
+     * @param message    description of the overload condition
+     * @param retryAfter how long clients should wait before retrying
+     */
+    public ServiceUnavailableException(String message, Duration retryAfter) {
+        super(message, 503, retryAfter);
+    }
+}
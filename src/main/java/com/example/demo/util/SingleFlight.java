@@ -0,0 +1,142 @@
+package com.example.demo.util;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import java.time.Duration;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+/**
+ * Coalesces concurrent identical reads: while a load for a key is in flight, further callers for the
+ * same key wait for its result instead of running their own query.
+ *
+ * <p>The first caller runs the load on its own thread; the others block on a {@link CompletableFuture}
+ * for at most {@code maxWait}, parking rather than pinning when they are virtual threads. Every outcome
+ * is shared, including empty results and exceptions. The in-flight entry is removed as soon as the load
+ * finishes, whether it succeeds, fails or the leader is interrupted, so nothing is cached: a caller
+ * arriving afterwards starts a fresh load. Writers call {@link #forget} so that readers arriving after
+ * a write do not join a load that started before it.</p>
+ *
+ * <p>Calls are counted as {@code singleflight.calls} by {@code name} and {@code role}: {@code leader}
+ * (ran the load), {@code follower} (shared it) and {@code timeout} (gave up waiting). The coalescing
+ * ratio is followers over all calls.</p>
+ *
+ * @param <K> the key type; keys must implement equals and hashCode
+ * @param <V> the result type
+ */
+public class SingleFlight<K, V> {
+
+    private final ConcurrentHashMap<K, CompletableFuture<V>> inFlight = new ConcurrentHashMap<>();
+    private final boolean enabled;
+    private final Duration maxWait;
+    private final Counter leaders;
+    private final Counter followers;
+    private final Counter timeouts;
+
+    /**
+     * Creates a single-flight group.
+     *
+     * @param name          name tag of the metrics, e.g. {@code employee.byId}
+     * @param properties    enablement and follower wait bound
+     * @param meterRegistry registry receiving the call counters
+     */
+    public SingleFlight(String name, SingleFlightProperties properties, MeterRegistry meterRegistry) {
+        this.enabled = properties.enabled();
+        this.maxWait = properties.maxWait();
+        this.leaders = calls(meterRegistry, name, "leader");
+        this.followers = calls(meterRegistry, name, "follower");
+        this.timeouts = calls(meterRegistry, name, "timeout");
+    }
+
+    private static Counter calls(MeterRegistry meterRegistry, String name, String role) {
+        return Counter.builder("singleflight.calls")
+                .description("Reads by whether they ran the query, shared another caller's, or gave up waiting")
+                .tag("name", name)
+                .tag("role", role)
+                .register(meterRegistry);
+    }
+
+    /**
+     * Runs the load, or waits for the identical load already in flight.
+     *
+     * @param key  identifies the read
+     * @param load the read to run when no identical one is in flight
+     * @return the load's result
+     * @throws ServiceUnavailableException if the in-flight load did not finish within {@code maxWait}
+     *                                     or the wait was interrupted
+     * @throws RuntimeException            whatever the load threw
+     */
+    public V execute(K key, Supplier<V> load) {
+        if (!enabled) {
+            return load.get();
+        }
+        CompletableFuture<V> call = new CompletableFuture<>();
+        CompletableFuture<V> existing = inFlight.putIfAbsent(key, call);
+        if (existing == null) {
+            leaders.increment();
+            return lead(key, call, load);
+        }
+        followers.increment();
+        return follow(existing);
+    }
+
+    private V lead(K key, CompletableFuture<V> call, Supplier<V> load) {
+        try {
+            V result = load.get();
+            call.complete(result);
+            return result;
+        } catch (RuntimeException | Error e) {
+            call.completeExceptionally(e);
+            throw e;
+        } finally {
+            // Also reached when the leader is interrupted; a forgotten call is no longer mapped
+            inFlight.remove(key, call);
+            if (!call.isDone()) {
+                call.cancel(false);
+            }
+        }
+    }
+
+    private V follow(CompletableFuture<V> call) {
+        try {
+            return call.get(maxWait.toNanos(), TimeUnit.NANOSECONDS);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            if (e.getCause() instanceof Error error) {
+                throw error;
+            }
+            throw new IllegalStateException(e.getCause());
+        } catch (TimeoutException | CancellationException e) {
+            timeouts.increment();
+            throw new ServiceUnavailableException("Database is saturated, retry later", maxWait);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ServiceUnavailableException("Database is saturated, retry later", maxWait);
+        }
+    }
+
+    /**
+     * Detaches the in-flight load for a key, if any, so later callers start a new one. Callers already
+     * waiting still get its result.
+     *
+     * @param key the key whose data has changed
+     */
+    public void forget(K key) {
+        inFlight.remove(key);
+    }
+
+    /**
+     * Detaches every in-flight load.
+     */
+    public void forgetAll() {
+        inFlight.clear();
+    }
+}
@@ -0,0 +1,15 @@
+package com.example.demo.util;
+
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+/**
+ * Settings for coalescing concurrent identical reads, bound from {@code app.single-flight}.
+ *
+ * @param enabled whether concurrent identical reads share one query
+ * @param maxWait longest a caller waits for a query started by another request before getting a 503
+ */
+public record SingleFlightProperties(@DefaultValue("true") boolean enabled,
+                                     @DefaultValue("2s") Duration maxWait) {
+}
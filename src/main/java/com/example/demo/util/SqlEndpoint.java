@@ -0,0 +1,53 @@
+package com.example.demo.util;
+
+import org.springframework.boot.actuate.endpoint.annotation.DeleteOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+
+import java.util.List;
+
+/**
+ * Actuator endpoint {@code /actuator/sql} listing query shapes by total time and recent N+1 reports.
+ * A DELETE clears them, for example before a load test.
+ */
+@Endpoint(id = "sql")
+public class SqlEndpoint {
+
+    private final SqlStatistics sqlStatistics;
+
+    /**
+     * Creates the endpoint.
+     *
+     * @param sqlStatistics the statistics to expose
+     */
+    public SqlEndpoint(SqlStatistics sqlStatistics) {
+        this.sqlStatistics = sqlStatistics;
+    }
+
+    /**
+     * Reads the current statistics.
+     *
+     * @return shapes, most total time first, and the recent N+1 reports
+     */
+    @ReadOperation
+    public Report report() {
+        return new Report(sqlStatistics.shapes(), sqlStatistics.recentNPlusOne());
+    }
+
+    /**
+     * Clears the per-shape aggregates and N+1 reports.
+     */
+    @DeleteOperation
+    public void reset() {
+        sqlStatistics.reset();
+    }
+
+    /**
+     * Endpoint payload.
+     *
+     * @param shapes   per query shape aggregates
+     * @param nPlusOne recent requests that repeated a SELECT
+     */
+    public record Report(List<SqlStatistics.ShapeSnapshot> shapes, List<SqlStatistics.NPlusOne> nPlusOne) {
+    }
+}
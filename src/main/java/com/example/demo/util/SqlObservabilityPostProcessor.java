@@ -0,0 +1,76 @@
+package com.example.demo.util;
+
+import net.ttddyy.dsproxy.ExecutionInfo;
+import net.ttddyy.dsproxy.QueryInfo;
+import net.ttddyy.dsproxy.listener.QueryExecutionListener;
+import net.ttddyy.dsproxy.support.ProxyDataSource;
+import net.ttddyy.dsproxy.support.ProxyDataSourceBuilder;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+
+import javax.sql.DataSource;
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * Wraps every {@link DataSource} bean in a datasource-proxy that reports each statement to
+ * {@link SqlStatistics}, so Hibernate, Spring Data and plain JDBC queries are all measured at the driver.
+ *
+ * <p>The statistics are looked up on the first statement rather than injected, so registering this
+ * post-processor does not force the meter registry to be created before the other post-processors.</p>
+ */
+public class SqlObservabilityPostProcessor implements BeanPostProcessor {
+
+    private final Supplier<SqlStatistics> statistics;
+
+    /**
+     * Creates the post-processor.
+     *
+     * @param statistics supplies the statistics on first use
+     */
+    public SqlObservabilityPostProcessor(Supplier<SqlStatistics> statistics) {
+        this.statistics = statistics;
+    }
+
+    /**
+     * Wraps data sources that are not already proxied.
+     *
+     * @param bean     the initialized bean
+     * @param beanName the bean name, also used as the proxy name
+     * @return the proxy for data sources, the bean itself otherwise
+     */
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+        if (bean instanceof DataSource dataSource && !(bean instanceof ProxyDataSource)) {
+            return ProxyDataSourceBuilder.create(dataSource)
+                    .name(beanName)
+                    .listener(new TimingListener(statistics))
+                    .build();
+        }
+        return bean;
+    }
+
+    /**
+     * Times each execution with nanosecond resolution and records it by statement.
+     */
+    private record TimingListener(Supplier<SqlStatistics> statistics) implements QueryExecutionListener {
+
+        private static final String START_NANOS = "sqlStatistics.startNanos";
+
+        @Override
+        public void beforeQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+            execInfo.addCustomValue(START_NANOS, System.nanoTime());
+        }
+
+        @Override
+        public void afterQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+            Long start = execInfo.getCustomValue(START_NANOS, Long.class);
+            if (start == null || queryInfoList.isEmpty()) {
+                return;
+            }
+            long nanos = System.nanoTime() - start;
+            // A JDBC batch is one round trip; attribute it to its statement and count every row it carried
+            int statements = execInfo.isBatch() ? Math.max(1, execInfo.getBatchSize()) : queryInfoList.size();
+            statistics.get().record(queryInfoList.getFirst().getQuery(), nanos, statements);
+        }
+    }
+}
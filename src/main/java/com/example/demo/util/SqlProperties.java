@@ -0,0 +1,21 @@
+package com.example.demo.util;
+
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+/**
+ * JDBC instrumentation settings, bound from {@code app.sql}. Enabled by the {@code sql-observability} profile.
+ *
+ * @param enabled           whether the data source is wrapped and queries are measured
+ * @param slowThreshold     queries taking at least this long are logged
+ * @param slowLogSampleRate fraction of slow queries logged, from 0.0 to 1.0; all are still counted
+ * @param nPlusOneThreshold a request executing the same SELECT shape this many times is reported as N+1
+ * @param maxShapes         maximum number of distinct query shapes tracked; further shapes are grouped as {@code OTHER}
+ */
+public record SqlProperties(@DefaultValue("false") boolean enabled,
+                            @DefaultValue("100ms") Duration slowThreshold,
+                            @DefaultValue("1.0") double slowLogSampleRate,
+                            @DefaultValue("10") int nPlusOneThreshold,
+                            @DefaultValue("200") int maxShapes) {
+}
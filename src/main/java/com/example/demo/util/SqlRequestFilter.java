@@ -0,0 +1,59 @@
+package com.example.demo.util;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.core.Ordered;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+
+/**
+ * Scopes {@link SqlStatistics} per request so statements per request and N+1 patterns are attributed to
+ * the route that caused them. Statements run on other threads, such as the write coalescer's flusher,
+ * are timed but not attributed to a request.
+ */
+public class SqlRequestFilter extends OncePerRequestFilter implements Ordered {
+
+    private final SqlStatistics sqlStatistics;
+
+    /**
+     * Creates the filter.
+     *
+     * @param sqlStatistics the statistics to scope
+     */
+    public SqlRequestFilter(SqlStatistics sqlStatistics) {
+        this.sqlStatistics = sqlStatistics;
+    }
+
+    /**
+     * Runs just inside {@link RouteMetricsFilter}.
+     *
+     * @return the filter order
+     */
+    @Override
+    public int getOrder() {
+        return Ordered.HIGHEST_PRECEDENCE + 2;
+    }
+
+    /**
+     * Counts the statements run by the request and publishes them once it completes.
+     *
+     * @param request     the incoming HTTP servlet request
+     * @param response    the HTTP servlet response
+     * @param filterChain the filter chain to continue processing
+     * @throws ServletException in case of general servlet errors
+     * @throws IOException      in case of I/O errors
+     */
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        sqlStatistics.beginRequest();
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            sqlStatistics.endRequest(RouteMetricsFilter.routeOf(request));
+        }
+    }
+}
@@ -0,0 +1,248 @@
+package com.example.demo.util;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.regex.Pattern;
+
+/**
+ * Aggregates JDBC statement timings by query shape and per request.
+ *
+ * <p>A shape is the SQL text with literals replaced by {@code ?} and IN lists collapsed, so the same
+ * statement with different values is counted once. Each shape gets a {@code db.query.duration} timer with
+ * a percentile histogram; statements per request are published as {@code db.statements.per.request}
+ * and repeated SELECTs within one request as {@code db.n_plus_one}, both tagged by route. Only slow
+ * queries are logged, and only their shape, never bind values.</p>
+ */
+public class SqlStatistics {
+
+    private static final Logger LOG = LoggerFactory.getLogger(SqlStatistics.class);
+    private static final String OTHER = "OTHER";
+    private static final int RECENT_N_PLUS_ONE = 50;
+    private static final Pattern STRING_LITERAL = Pattern.compile("'(?:[^']|'')*'");
+    private static final Pattern NUMBER_LITERAL = Pattern.compile("\\b\\d+(?:\\.\\d+)?\\b");
+    private static final Pattern IN_LIST = Pattern.compile("\\(\\s*\\?(?:\\s*,\\s*\\?)+\\s*\\)");
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+
+    private final long slowThresholdNanos;
+    private final double slowLogSampleRate;
+    private final int nPlusOneThreshold;
+    private final int maxShapes;
+    private final Meter.MeterProvider<Timer> queryTimers;
+    private final Meter.MeterProvider<DistributionSummary> statementsPerRequest;
+    private final Meter.MeterProvider<Counter> nPlusOneCounters;
+    private final Cache<String, String> shapeOfSql = Caffeine.newBuilder().maximumSize(1000).build();
+    private final Map<String, ShapeStats> byShape = new ConcurrentHashMap<>();
+    private final Queue<NPlusOne> recentNPlusOne = new ConcurrentLinkedQueue<>();
+    private final ThreadLocal<RequestStats> currentRequest = new ThreadLocal<>();
+
+    /**
+     * Creates the statistics and their meters.
+     *
+     * @param properties    thresholds and limits
+     * @param meterRegistry registry receiving the query, per-request and N+1 meters
+     */
+    public SqlStatistics(SqlProperties properties, MeterRegistry meterRegistry) {
+        this.slowThresholdNanos = properties.slowThreshold().toNanos();
+        this.slowLogSampleRate = properties.slowLogSampleRate();
+        this.nPlusOneThreshold = properties.nPlusOneThreshold();
+        this.maxShapes = properties.maxShapes();
+        this.queryTimers = Timer.builder("db.query.duration")
+                .description("JDBC statement execution time per query shape")
+                .publishPercentileHistogram()
+                .withRegistry(meterRegistry);
+        this.statementsPerRequest = DistributionSummary.builder("db.statements.per.request")
+                .description("JDBC statements executed while serving a request")
+                .publishPercentileHistogram()
+                .withRegistry(meterRegistry);
+        this.nPlusOneCounters = Counter.builder("db.n_plus_one")
+                .description("Requests that ran the same SELECT shape at least the N+1 threshold number of times")
+                .withRegistry(meterRegistry);
+    }
+
+    /**
+     * Records one statement execution.
+     *
+     * @param sql        the SQL text as sent to the driver
+     * @param nanos      execution time
+     * @param statements number of statements executed, the batch size for JDBC batches
+     */
+    public void record(String sql, long nanos, int statements) {
+        String shape = shapeOf(sql);
+        queryTimers.withTags("query", shape).record(nanos, TimeUnit.NANOSECONDS);
+        byShape.computeIfAbsent(shape, key -> new ShapeStats()).record(nanos, nanos >= slowThresholdNanos);
+        if (nanos >= slowThresholdNanos
+                && (slowLogSampleRate >= 1.0 || ThreadLocalRandom.current().nextDouble() < slowLogSampleRate)) {
+            LOG.warn("Slow query took {} ms: {}", TimeUnit.NANOSECONDS.toMillis(nanos), shape);
+        }
+        RequestStats request = currentRequest.get();
+        if (request != null) {
+            request.record(shape, statements);
+        }
+    }
+
+    /**
+     * Starts counting the statements run by the current thread for a request.
+     */
+    public void beginRequest() {
+        currentRequest.set(new RequestStats());
+    }
+
+    /**
+     * Publishes the statement count of the current thread's request and reports repeated SELECTs.
+     *
+     * @param route the route pattern the request was dispatched to
+     */
+    public void endRequest(String route) {
+        RequestStats request = currentRequest.get();
+        currentRequest.remove();
+        if (request == null) {
+            return;
+        }
+        statementsPerRequest.withTags("route", route).record(request.statements);
+        for (Map.Entry<String, Integer> executions : request.executionsByShape.entrySet()) {
+            if (executions.getValue() >= nPlusOneThreshold
+                    && executions.getKey().regionMatches(true, 0, "select", 0, 6)) {
+                nPlusOneCounters.withTags("route", route).increment();
+                recentNPlusOne.offer(new NPlusOne(route, executions.getKey(), executions.getValue(), Instant.now()));
+                while (recentNPlusOne.size() > RECENT_N_PLUS_ONE) {
+                    recentNPlusOne.poll();
+                }
+            }
+        }
+    }
+
+    /**
+     * Gets the tracked shapes, most total time first.
+     *
+     * @return a snapshot per shape
+     */
+    public List<ShapeSnapshot> shapes() {
+        List<ShapeSnapshot> snapshots = new ArrayList<>(byShape.size());
+        byShape.forEach((shape, stats) -> snapshots.add(stats.snapshot(shape)));
+        snapshots.sort(Comparator.comparingDouble(ShapeSnapshot::totalMillis).reversed());
+        return snapshots;
+    }
+
+    /**
+     * Gets the most recent N+1 reports, oldest first.
+     *
+     * @return the reports
+     */
+    public List<NPlusOne> recentNPlusOne() {
+        return List.copyOf(recentNPlusOne);
+    }
+
+    /**
+     * Clears the per-shape aggregates and N+1 reports. Meters are not affected.
+     */
+    public void reset() {
+        byShape.clear();
+        recentNPlusOne.clear();
+    }
+
+    /**
+     * Normalizes SQL into its shape, bounding the number of distinct shapes.
+     *
+     * @param sql the SQL text
+     * @return the shape, or {@code OTHER} once {@code maxShapes} distinct shapes are tracked
+     */
+    String shapeOf(String sql) {
+        String shape = shapeOfSql.get(sql, SqlStatistics::normalize);
+        return byShape.containsKey(shape) || byShape.size() < maxShapes ? shape : OTHER;
+    }
+
+    static String normalize(String sql) {
+        String shape = STRING_LITERAL.matcher(sql).replaceAll("?");
+        shape = NUMBER_LITERAL.matcher(shape).replaceAll("?");
+        shape = IN_LIST.matcher(shape).replaceAll("(?...)");
+        return WHITESPACE.matcher(shape).replaceAll(" ").trim().toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Running aggregates of one shape.
+     */
+    private static final class ShapeStats {
+
+        private final LongAdder count = new LongAdder();
+        private final LongAdder slow = new LongAdder();
+        private final LongAdder totalNanos = new LongAdder();
+        private final LongAccumulator maxNanos = new LongAccumulator(Math::max, 0);
+
+        void record(long nanos, boolean isSlow) {
+            count.increment();
+            totalNanos.add(nanos);
+            maxNanos.accumulate(nanos);
+            if (isSlow) {
+                slow.increment();
+            }
+        }
+
+        ShapeSnapshot snapshot(String shape) {
+            long executions = count.sum();
+            double totalMillis = totalNanos.sum() / 1e6;
+            return new ShapeSnapshot(shape, executions, slow.sum(), totalMillis,
+                    executions == 0 ? 0 : totalMillis / executions, maxNanos.get() / 1e6);
+        }
+    }
+
+    /**
+     * Statements run on behalf of one request; only touched by the request's thread.
+     */
+    private static final class RequestStats {
+
+        private final Map<String, Integer> executionsByShape = new HashMap<>();
+        private int statements;
+
+        void record(String shape, int count) {
+            statements += count;
+            executionsByShape.merge(shape, 1, Integer::sum);
+        }
+    }
+
+    /**
+     * Aggregates of one query shape.
+     *
+     * @param shape       normalized SQL
+     * @param executions  number of executions
+     * @param slow        executions at or above the slow threshold
+     * @param totalMillis total execution time
+     * @param meanMillis  mean execution time
+     * @param maxMillis   longest execution time
+     */
+    public record ShapeSnapshot(String shape, long executions, long slow, double totalMillis, double meanMillis,
+                                double maxMillis) {
+    }
+
+    /**
+     * A request that repeated the same SELECT shape.
+     *
+     * @param route      route pattern of the request
+     * @param shape      the repeated SELECT
+     * @param executions how often it ran in that request
+     * @param at         when the request finished
+     */
+    public record NPlusOne(String route, String shape, int executions, Instant at) {
+    }
+}
@@ -0,0 +1,114 @@
+package com.example.demo.util;
+
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.WriteListener;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpServletResponseWrapper;
+
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * Response wrapper that writes straight through to the client while keeping a copy of only the
+ * first {@code limit} bytes of the body for logging.
+ *
+ * <p>Unlike {@link org.springframework.web.util.ContentCachingResponseWrapper} the body is never
+ * buffered in full. Nothing is kept when the content type is not textual or the declared length
+ * exceeds {@code maxCaptureContentLength}; bodies written through {@link #getWriter()} are not captured.</p>
+ */
+class TruncatingResponseWrapper extends HttpServletResponseWrapper {
+
+    private final int limit;
+    private final long maxCaptureContentLength;
+    private byte[] captured;
+    private int count;
+    private Boolean capturing;
+    private ServletOutputStream outputStream;
+
+    /**
+     * Wraps the given response.
+     *
+     * @param response                the response to wrap
+     * @param limit                   maximum number of body bytes to keep
+     * @param maxCaptureContentLength responses declaring a larger Content-Length are not captured
+     */
+    TruncatingResponseWrapper(HttpServletResponse response, int limit, long maxCaptureContentLength) {
+        super(response);
+        this.limit = limit;
+        this.maxCaptureContentLength = maxCaptureContentLength;
+    }
+
+    @Override
+    public ServletOutputStream getOutputStream() throws IOException {
+        if (outputStream == null) {
+            ServletOutputStream delegate = super.getOutputStream();
+            outputStream = new ServletOutputStream() {
+                @Override
+                public boolean isReady() {
+                    return delegate.isReady();
+                }
+
+                @Override
+                public void setWriteListener(WriteListener writeListener) {
+                    delegate.setWriteListener(writeListener);
+                }
+
+                @Override
+                public void write(int b) throws IOException {
+                    delegate.write(b);
+                    if (shouldCapture(1)) {
+                        captured[count++] = (byte) b;
+                    }
+                }
+
+                @Override
+                public void write(byte[] b, int off, int len) throws IOException {
+                    delegate.write(b, off, len);
+                    if (shouldCapture(len)) {
+                        int n = Math.min(len, limit - count);
+                        System.arraycopy(b, off, captured, count, n);
+                        count += n;
+                    }
+                }
+
+                @Override
+                public void flush() throws IOException {
+                    delegate.flush();
+                }
+
+                @Override
+                public void close() throws IOException {
+                    delegate.close();
+                }
+            };
+        }
+        return outputStream;
+    }
+
+    /**
+     * Gets the captured leading bytes of the body.
+     *
+     * @return at most {@code limit} bytes, empty when nothing was captured
+     */
+    byte[] getCapturedBody() {
+        return captured == null ? new byte[0] : Arrays.copyOf(captured, count);
+    }
+
+    /**
+     * Decides on first write whether this body is worth capturing, then whether room is left.
+     *
+     * @param len number of bytes about to be captured
+     * @return true if at least one more byte should be captured
+     */
+    private boolean shouldCapture(int len) {
+        if (capturing == null) {
+            String length = getHeader("Content-Length");
+            capturing = LoggingFilter.isTextual(getContentType())
+                    && (length == null || Long.parseLong(length) <= maxCaptureContentLength);
+            if (capturing) {
+                captured = new byte[limit];
+            }
+        }
+        return capturing && len > 0 && count < limit;
+    }
+}
@@ -0,0 +1,15 @@
+package com.example.demo.util;
+
+/**
+ * 415 Unsupported Media Type exception.
+ */
+public final class UnsupportedMediaTypeException extends HttpException {
+    /**
+     * Creates an UnsupportedMediaTypeException with the given message.
+     *
+     * @param message description of the accepted content types
+     */
+    public UnsupportedMediaTypeException(String message) {
+        super(message, 415);
+    }
+}
@@ -1,21 +1,99 @@
 package com.example.demo;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
-import org.junit.jupiter.api.Test;
+import org.apache.http.entity.ContentType;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ConfigurableApplicationContext;
+import us.abstracta.jmeter.javadsl.core.TestPlanStats;
+import us.abstracta.jmeter.javadsl.core.threadgroups.BaseThreadGroup;
 
 import java.io.IOException;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ThreadLocalRandom;
+import java.util.stream.Stream;
 
+import static org.junit.jupiter.api.Assertions.assertAll;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static us.abstracta.jmeter.javadsl.JmeterDsl.*;
 
 /**
- * Simple load test using JMeter Java DSL to exercise the employee API endpoints.
+ * Load test suite using JMeter Java DSL to exercise the employee API endpoints.
+ *
+ * <p>Each workload profile (read-heavy, write-heavy, mixed) runs under a closed model (fixed number of
+ * threads) and an open model (target arrival rate), with a ramp-up followed by a steady-state phase.
+ * Every iteration posts a fresh random payload. The build fails when p95/p99 latency or the error rate
+ * cross the configured thresholds.</p>
+ *
+ * <p>{@code -Dload.mode} picks the server under test: {@code webmvc} (default, the WebMvc + JPA
+ * application) or {@code webflux} (the WebFlux + R2DBC variant in the {@code reactive} project). Both
+ * expose the same routes and payloads, so the same profiles run unchanged and reports land side by side
+ * under {@code build/reports/jmeter/<mode>/}. When {@code load.webmvcJar} / {@code load.webfluxJar}
+ * names a boot jar, as {@code ./gradlew loadTest} does, the server is forked into its own JVM on a free
+ * port, so neither stack shares heap or CPU with JMeter; without one, WebMvc runs in-process. An external
+ * server can still be targeted with {@code -DtargetBaseUrl}. Tuning is read from {@code load.*} system
+ * properties.</p>
  */
+@Tag("load")
 public class LoadTest {
 
+    private static final int SEED_ROWS = 500;
+    private static final String MODE = System.getProperty("load.mode", "webmvc");
+    private static final Duration STARTUP_TIMEOUT = Duration.ofSeconds(Long.getLong("load.startupSeconds", 60));
+    private static final int THREADS = Integer.getInteger("load.threads", 20);
+    private static final double RPS = Double.parseDouble(System.getProperty("load.rps", "200"));
+    private static final Duration RAMP = Duration.ofSeconds(Long.getLong("load.rampSeconds", 5));
+    private static final Duration HOLD = Duration.ofSeconds(Long.getLong("load.holdSeconds", 20));
+    private static final Duration MAX_P95 = Duration.ofMillis(Long.getLong("load.maxP95Ms", 250));
+    private static final Duration MAX_P99 = Duration.ofMillis(Long.getLong("load.maxP99Ms", 500));
+    private static final double MAX_ERROR_RATE = Double.parseDouble(System.getProperty("load.maxErrorRate", "0.01"));
+
+    private static ConfigurableApplicationContext application;
+    private static Process server;
+    private static String baseUrl;
+
+    /**
+     * Share of iterations that write; the rest read.
+     */
+    enum Profile {
+        READ_HEAVY(5),
+        WRITE_HEAVY(80),
+        MIXED(30);
+
+        private final int writePercent;
+
+        Profile(int writePercent) {
+            this.writePercent = writePercent;
+        }
+    }
+
+    /**
+     * Closed model: a fixed population of threads. Open model: a target arrival rate regardless of latency.
+     */
+    enum Model {
+        CLOSED,
+        OPEN
+    }
+
     /**
      * Generates a random string of the given length from the provided alphabet.
      *
@@ -33,58 +111,205 @@ public class LoadTest {
     }
 
     /**
-     * Runs a small load test plan exercising create, get by id, and list endpoints.
+     * Starts the server selected by {@code load.mode} on a free port, unless an external target was given.
+     *
+     * @throws Exception if the forked server cannot be started or does not become healthy in time
+     */
+    @BeforeAll
+    static void startApplication() throws Exception {
+        baseUrl = System.getProperty("targetBaseUrl");
+        if (baseUrl != null) {
+            return;
+        }
+        // Keep per-request logging from dominating the measurements
+        String[] args = {"--app.logging.mode=async", "--app.logging.sample-rate=0.01"};
+        switch (MODE) {
+            case "webmvc" -> {
+                String jar = System.getProperty("load.webmvcJar");
+                if (jar != null) {
+                    fork(jar, args);
+                    return;
+                }
+                SpringApplication app = new SpringApplication(Demo1Application.class);
+                app.addInitializers(new Demo1Application.FunctionalBeanRegistrar());
+                application = app.run(Stream.concat(Stream.of("--server.port=0"), Arrays.stream(args)).toArray(String[]::new));
+                baseUrl = "http://localhost:" + application.getEnvironment().getProperty("local.server.port");
+            }
+            case "webflux" -> {
+                String jar = System.getProperty("load.webfluxJar");
+                if (jar == null) {
+                    throw new IllegalStateException("load.mode=webflux needs -Dload.webfluxJar, as set by ./gradlew loadTest");
+                }
+                fork(jar);
+            }
+            default -> throw new IllegalArgumentException("load.mode must be webmvc or webflux, was " + MODE);
+        }
+    }
+
+    /**
+     * Stops the in-process application or the forked server, if one was started.
+     */
+    @AfterAll
+    static void stopApplication() {
+        if (application != null) {
+            application.close();
+        }
+        if (server != null) {
+            server.destroy();
+        }
+    }
+
+    /**
+     * Starts a boot jar in its own JVM on a free port and waits until its health endpoint answers.
+     *
+     * @param jar  the boot jar
+     * @param args extra application arguments
+     * @throws Exception if the server exits or is not healthy within {@code load.startupSeconds}
+     */
+    private static void fork(String jar, String... args) throws Exception {
+        int port;
+        try (ServerSocket socket = new ServerSocket(0)) {
+            port = socket.getLocalPort();
+        }
+        Path log = Path.of("build/reports/jmeter", MODE, "server.log");
+        Files.createDirectories(log.getParent());
+        List<String> command = new ArrayList<>(List.of(
+                Path.of(System.getProperty("java.home"), "bin", "java").toString(), "-jar", jar, "--server.port=" + port));
+        command.addAll(Arrays.asList(args));
+        server = new ProcessBuilder(command).redirectErrorStream(true).redirectOutput(log.toFile()).start();
+        baseUrl = "http://localhost:" + port;
+
+        HttpClient client = HttpClient.newHttpClient();
+        HttpRequest health = HttpRequest.newBuilder(URI.create(baseUrl + "/actuator/health")).build();
+        long deadline = System.nanoTime() + STARTUP_TIMEOUT.toNanos();
+        while (System.nanoTime() < deadline) {
+            if (!server.isAlive()) {
+                throw new IllegalStateException(MODE + " server exited with " + server.exitValue() + ", see " + log);
+            }
+            try {
+                if (client.send(health, HttpResponse.BodyHandlers.discarding()).statusCode() == 200) {
+                    return;
+                }
+            } catch (IOException e) {
+                // not listening yet
+            }
+            Thread.sleep(200);
+        }
+        throw new IllegalStateException(MODE + " server not healthy after " + STARTUP_TIMEOUT + ", see " + log);
+    }
+
+    static Stream<Arguments> workloads() {
+        return Arrays.stream(Profile.values())
+                .flatMap(profile -> Arrays.stream(Model.values()).map(model -> Arguments.of(profile, model)));
+    }
+
+    /**
+     * Runs one workload profile under one load model and checks the latency and error SLOs.
      *
-     * @throws IOException if the JMeter HTML report cannot be written
+     * @param profile the read/write mix
+     * @param model   the load model
+     * @throws IOException if the JMeter reports cannot be written
      */
-    @Test
-    public void testLoad() throws IOException {
-        String baseUrl = System.getProperty("targetBaseUrl", "http://localhost:8080");
-
-        // Build request body with Jackson
-        Map<String, Object> body = new HashMap<>();
-        body.put("name", "name_" + randomFrom("abcdef0123456789", 8));
-        body.put("email", "email_" + randomFrom("abcdef0123456789", 6) + "@example.com");
-        body.put("phone", randomFrom("0123456789", 10));
-        String jsonBody = new ObjectMapper().writeValueAsString(body);
-
-        testPlan(
+    @ParameterizedTest(name = "{0} {1}")
+    @MethodSource("workloads")
+    public void testLoad(Profile profile, Model model) throws IOException {
+        String reportDir = "build/reports/jmeter/" + MODE + "/" + profile + "-" + model + "/"
+                + LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss"));
+
+        TestPlanStats stats = testPlan(
             httpDefaults()
                 .url(baseUrl),
-            threadGroup(10, 10,
-                // Default headers for JSON API
-                httpHeaders()
-                    .header("Content-Type", "application/json")
-                    .header("Accept", "application/json"),
-
-                // Create an employee
-                httpSampler("Create Employee","/employee")
+            // Default headers for JSON API
+            httpHeaders()
+                .header("Content-Type", "application/json")
+                .header("Accept", "application/json"),
+
+            // Seed rows for the readers and publish their id range as JMeter properties
+            setupThreadGroup(
+                httpSampler("Seed employees", "/employee/batch")
                     .method("POST")
-                    .body(jsonBody)
-                    .contentType(org.apache.http.entity.ContentType.APPLICATION_JSON)
+                    .body(seedBody())
+                    .contentType(ContentType.APPLICATION_JSON)
                     .children(
-                        // Extract the generated id from JSON response (JMESPath: use 'id' not '$.id')
-                        jsonExtractor("empId", "id")
-                    ),
-
-                // Pause 500 ms before next request
-//                constantTimer(Duration.ofMillis(500)),
-
-                // Display and validate the extracted id before requesting by id
-                jsr223Sampler("Display & validate empId",
-                        "def id = vars.get('empId');\n" +
-                        "println('[DEBUG_LOG] Extracted empId=' + id);\n" +
-                        "if (id == null || !(id ==~ /\\d+/)) { throw new AssertionError('empId is invalid: ' + id) }\n"
+                        jsonExtractor("seedMin", "employees[0].id"),
+                        jsonExtractor("seedMax", "employees[-1].id"),
+                        jsr223PostProcessor("props.put('seedMin', vars.get('seedMin'));\n"
+                                + "props.put('seedMax', vars.get('seedMax'));")
+                    )
+            ),
+
+            workload(model,
+                percentController(profile.writePercent,
+                    // Create an employee with a payload randomized per iteration
+                    httpSampler("Create Employee", "/employee")
+                        .method("POST")
+                        .body("{\"name\":\"name_${__RandomString(8,abcdef0123456789)}\","
+                                + "\"email\":\"email_${__UUID()}@example.com\","
+                                + "\"phone\":\"555${__Random(1000000,9999999)}\"}")
+                        .contentType(ContentType.APPLICATION_JSON)
+                        .children(
+                            // Extract the generated id from JSON response (JMESPath: use 'id' not '$.id')
+                            jsonExtractor("empId", "id")
+                        ),
+                    httpSampler("Fetch created employee", "/employee/${empId}")
                 ),
+                percentController(100 - profile.writePercent,
+                    httpSampler("Fetch employee by id", "/employee/${__Random(${__P(seedMin)},${__P(seedMax)})}"),
+                    httpSampler("Fetch employee page", "/employee?after=${__Random(0,${__P(seedMax)})}&limit=50")
+                )
+            ),
+            jtlWriter(reportDir),
+            htmlReporter(reportDir + "/html")
+        ).run();
 
-                // Fetch by id
-                httpSampler("Fetch employee by id","/employee/${empId}"),
+        Duration p95 = stats.overall().sampleTime().perc95();
+        Duration p99 = stats.overall().sampleTime().perc99();
+        long samples = stats.overall().samples().total();
+        double errorRate = samples == 0 ? 1.0 : (double) stats.overall().errors().total() / samples;
+        System.out.printf("[LOAD] %s %s %s samples=%d p95=%dms p99=%dms errorRate=%.4f%n",
+                MODE, profile, model, samples, p95.toMillis(), p99.toMillis(), errorRate);
 
-                // Fetch all
-                httpSampler("Fetch all employees","/employee")
+        assertAll(
+            () -> assertTrue(p95.compareTo(MAX_P95) <= 0, "p95 " + p95.toMillis() + "ms > " + MAX_P95.toMillis() + "ms"),
+            () -> assertTrue(p99.compareTo(MAX_P99) <= 0, "p99 " + p99.toMillis() + "ms > " + MAX_P99.toMillis() + "ms"),
+            () -> assertTrue(errorRate <= MAX_ERROR_RATE, "error rate " + errorRate + " > " + MAX_ERROR_RATE)
+        );
+    }
 
-            ),
-            htmlReporter("build/reports/jmeter")
-        ).run();
+    /**
+     * Builds the steady-state thread group for the given model: ramp up, then hold.
+     *
+     * @param model    closed (threads) or open (arrival rate)
+     * @param children the samplers and controllers run on each iteration
+     * @return the configured thread group
+     */
+    private static BaseThreadGroup<?> workload(Model model, BaseThreadGroup.ThreadGroupChild... children) {
+        return switch (model) {
+            case CLOSED -> threadGroup("Closed model")
+                    .rampToAndHold(THREADS, RAMP, HOLD)
+                    .children(children);
+            case OPEN -> rpsThreadGroup("Open model")
+                    .maxThreads(THREADS * 10)
+                    .rampToAndHold(RPS, RAMP, HOLD)
+                    .children(children);
+        };
+    }
+
+    /**
+     * Builds a JSON array of random employees used to seed the readers.
+     *
+     * @return the request body for /employee/batch
+     * @throws IOException if the body cannot be serialized
+     */
+    private static String seedBody() throws IOException {
+        List<Map<String, Object>> employees = new ArrayList<>(SEED_ROWS);
+        for (int i = 0; i < SEED_ROWS; i++) {
+            Map<String, Object> body = new HashMap<>();
+            body.put("name", "name_" + randomFrom("abcdef0123456789", 8));
+            body.put("email", "email_" + randomFrom("abcdef0123456789", 12) + "@example.com");
+            body.put("phone", randomFrom("0123456789", 10));
+            employees.add(body);
+        }
+        return new ObjectMapper().writeValueAsString(employees);
     }
 }
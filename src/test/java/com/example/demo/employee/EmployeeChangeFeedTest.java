@@ -0,0 +1,163 @@
+package com.example.demo.employee;
+
+import com.example.demo.util.ProblemProperties;
+import com.example.demo.util.ProblemResponses;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.servlet.function.ServerRequest;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Verifies live delivery, {@code Last-Event-ID} resume and slow consumer handling of the change feed.
+ */
+class EmployeeChangeFeedTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+    /**
+     * A subscriber parked on the feed receives events as they are published, as SSE frames.
+     */
+    @Test
+    void deliversLiveEvents() throws Exception {
+        EmployeeChangeFeed feed = feed(16, 8, Duration.ofSeconds(5));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        CompletableFuture<Void> stream = CompletableFuture.runAsync(() -> send(feed, out, feed.epoch() + "-0"));
+        feed.publish(EmployeeChangeFeed.Type.CREATED, new EmployeeView(7L, "a", "a@example.com", null, 0L));
+        feed.publish(EmployeeChangeFeed.Type.UPDATED, new EmployeeChangeFeed.EmployeeRef(7L, null));
+        while (!text(out).contains("-2\n")) {
+            Thread.onSpinWait();
+        }
+        feed.close();
+        stream.get();
+
+        String body = text(out);
+        String epoch = feed.epoch();
+        assertTrue(body.startsWith("id: " + epoch + "-1\nevent: created\ndata: {"), body);
+        assertTrue(body.contains("\"email\":\"a@example.com\""), body);
+        assertTrue(body.endsWith("}\n\nid: " + epoch + "-2\nevent: updated\ndata: {\"id\":7}\n\n"), body);
+    }
+
+    /**
+     * A reconnecting client is replayed only the events after its {@code Last-Event-ID}.
+     */
+    @Test
+    void resumesAfterLastEventId() throws Exception {
+        EmployeeChangeFeed feed = feed(16, 8, Duration.ofMillis(50));
+        feed.publishAll(EmployeeChangeFeed.Type.CREATED, List.of(ref(1), ref(2), ref(3)));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        feed.send(out, feed.epoch() + "-1");
+
+        assertFalse(text(out).contains("-1\n"));
+        assertTrue(text(out).contains("id: " + feed.epoch() + "-2\n"));
+        assertTrue(text(out).contains("id: " + feed.epoch() + "-3\n"));
+        assertFalse(text(out).contains("event: reset"));
+    }
+
+    /**
+     * An id that has left the replay log, or is from before a restart, gets a reset and then only new events.
+     */
+    @Test
+    void resetsWhenLastEventIdIsNoLongerReplayable() throws Exception {
+        EmployeeChangeFeed feed = feed(2, 2, Duration.ofMillis(50));
+        feed.publishAll(EmployeeChangeFeed.Type.CREATED, List.of(ref(1), ref(2), ref(3), ref(4), ref(5)));
+        String reset = "id: " + feed.epoch() + "-5\nevent: reset\ndata: {}\n\n";
+
+        ByteArrayOutputStream evicted = new ByteArrayOutputStream();
+        feed.send(evicted, feed.epoch() + "-1");
+        assertEquals(reset, text(evicted));
+
+        ByteArrayOutputStream ahead = new ByteArrayOutputStream();
+        feed.send(ahead, feed.epoch() + "-99");
+        assertEquals(reset, text(ahead));
+
+        ByteArrayOutputStream malformed = new ByteArrayOutputStream();
+        feed.send(malformed, "4");
+        assertEquals(reset, text(malformed));
+    }
+
+    /**
+     * An id issued before a restart, or by another instance, is reset even when its sequence is still in
+     * this feed's replay log, instead of being taken as a resume point and silently skipping changes.
+     */
+    @Test
+    void resetsIdsFromAnotherEpoch() throws Exception {
+        EmployeeChangeFeed previous = feed(16, 8, Duration.ofMillis(50));
+        EmployeeChangeFeed restarted = feed(16, 8, Duration.ofMillis(50));
+        restarted.publishAll(EmployeeChangeFeed.Type.CREATED, List.of(ref(1), ref(2), ref(3)));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        restarted.send(out, previous.epoch() + "-2");
+
+        assertEquals("id: " + restarted.epoch() + "-3\nevent: reset\ndata: {}\n\n", text(out));
+    }
+
+    /**
+     * A subscriber further behind than {@code maxLag} is disconnected before anything is written.
+     */
+    @Test
+    void disconnectsSlowConsumers() throws Exception {
+        EmployeeChangeFeed feed = feed(16, 2, Duration.ofSeconds(5));
+        feed.publishAll(EmployeeChangeFeed.Type.CREATED, List.of(ref(1), ref(2), ref(3)));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        feed.send(out, feed.epoch() + "-0");
+
+        assertEquals("", text(out));
+        assertEquals(1, registry.counter("employee.changes.slow_consumers").count());
+    }
+
+    /**
+     * Responses that are built but never written, e.g. because a filter failed, hold no subscriber slot.
+     */
+    @Test
+    void unwrittenResponsesHoldNoSubscriberSlot() throws Exception {
+        EmployeeChangeFeed feed = feed(16, 8, Duration.ofMillis(50));
+        MockHttpServletRequest servletRequest = new MockHttpServletRequest("GET", "/employee/changes");
+        ServerRequest request = ServerRequest.create(servletRequest, List.of());
+        for (int i = 0; i < 200; i++) {
+            feed.stream(request);
+        }
+
+        MockHttpServletResponse servletResponse = new MockHttpServletResponse();
+        feed.stream(request).writeTo(servletRequest, servletResponse, () -> List.of());
+
+        assertEquals(200, servletResponse.getStatus());
+        assertEquals(0, registry.get("employee.changes.subscribers").gauge().value());
+    }
+
+    private EmployeeChangeFeed feed(int replaySize, int maxLag, Duration maxDuration) {
+        JsonMapper jsonMapper = JsonMapper.builder().build();
+        return new EmployeeChangeFeed(jsonMapper,
+                new ChangeFeedProperties(replaySize, maxLag, Duration.ofSeconds(15), maxDuration, 100),
+                new ProblemResponses(jsonMapper, new ProblemProperties(false, 16)), registry);
+    }
+
+    private static EmployeeChangeFeed.EmployeeRef ref(long id) {
+        return new EmployeeChangeFeed.EmployeeRef(id, null);
+    }
+
+    private static void send(EmployeeChangeFeed feed, ByteArrayOutputStream out, String lastEventId) {
+        try {
+            feed.send(out, lastEventId);
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static String text(ByteArrayOutputStream out) {
+        return out.toString(StandardCharsets.UTF_8);
+    }
+}
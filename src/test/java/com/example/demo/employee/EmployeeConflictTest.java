@@ -0,0 +1,98 @@
+package com.example.demo.employee;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.DataIntegrityViolationException;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.List;
+import java.util.UUID;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Verifies against H2 that unique email violations from writes bypassing the repository proxies are
+ * translated and answered with 409, like those going through the repository.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+class EmployeeConflictTest {
+
+    private final HttpClient client = HttpClient.newHttpClient();
+
+    @Value("${local.server.port}")
+    private int port;
+
+    @Autowired
+    private EmployeeBatchWriter batchWriter;
+
+    /**
+     * The batch writer throws {@link DataIntegrityViolationException}, not the raw Hibernate exception.
+     */
+    @Test
+    void batchWriterTranslatesDuplicateEmails() {
+        String email = uniqueEmail();
+        batchWriter.persistAll(List.of(new Employee(null, "a", email, null, null)));
+
+        assertThrows(DataIntegrityViolationException.class,
+                () -> batchWriter.persistAll(List.of(new Employee(null, "b", email, null, null))));
+    }
+
+    /**
+     * A batch containing an email that already exists is rejected with 409 as a whole.
+     */
+    @Test
+    void batchWithDuplicateEmailIsConflict() throws Exception {
+        String email = uniqueEmail();
+        assertEquals(200, send("POST", "/employee/batch", "[" + employee("a", email) + "]").statusCode());
+
+        HttpResponse<String> duplicate = send("POST", "/employee/batch",
+                "[" + employee("b", uniqueEmail()) + "," + employee("c", email) + "]");
+
+        assertEquals(409, duplicate.statusCode());
+        assertEquals("application/problem+json", duplicate.headers().firstValue("Content-Type").orElse(null));
+    }
+
+    /**
+     * The single-statement updates behind PATCH and a minimal PUT answer 409 like the default PUT.
+     */
+    @Test
+    void updateToTakenEmailIsConflict() throws Exception {
+        String taken = uniqueEmail();
+        HttpResponse<String> created = send("POST", "/employee/batch",
+                "[" + employee("a", taken) + "," + employee("b", uniqueEmail()) + "]");
+        Matcher ids = Pattern.compile("\"id\":(\\d+)").matcher(created.body());
+        ids.find();
+        ids.find();
+        String path = "/employee/" + ids.group(1);
+
+        assertEquals(409, send("PATCH", path, "{\"email\":\"" + taken + "\"}").statusCode());
+        assertEquals(409, send("PUT", path, employee("b", taken), "Prefer", "return=minimal").statusCode());
+        assertEquals(409, send("PUT", path, employee("b", taken)).statusCode());
+    }
+
+    private HttpResponse<String> send(String method, String path, String json, String... headers) throws Exception {
+        HttpRequest.Builder request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + path))
+                .header("Content-Type", "application/json")
+                .method(method, HttpRequest.BodyPublishers.ofString(json));
+        if (headers.length > 0) {
+            request.headers(headers);
+        }
+        return client.send(request.build(), HttpResponse.BodyHandlers.ofString());
+    }
+
+    private static String employee(String name, String email) {
+        return "{\"name\":\"" + name + "\",\"email\":\"" + email + "\",\"phone\":\"555\"}";
+    }
+
+    private static String uniqueEmail() {
+        return UUID.randomUUID() + "@example.com";
+    }
+}
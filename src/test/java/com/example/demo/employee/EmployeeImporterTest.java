@@ -0,0 +1,146 @@
+package com.example.demo.employee;
+
+import com.example.demo.util.BadRequestException;
+import com.example.demo.util.BulkheadProperties;
+import com.example.demo.util.DbBulkhead;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ThreadLocalRandom;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Verifies parsing, validation and per-row failure isolation of the bulk import, against H2 through the
+ * real batch writer so duplicates fail the way they do in production.
+ */
+@SpringBootTest
+class EmployeeImporterTest {
+
+    // Keeps emails unique across tests sharing the database, and short enough for the 64 character lines
+    private final String domain = Integer.toHexString(ThreadLocalRandom.current().nextInt()) + ".example.com";
+    private final List<Long> importedIds = new CopyOnWriteArrayList<>();
+
+    @Autowired
+    private EmployeeBatchWriter batchWriter;
+
+    @Autowired
+    private EmployeeInterface employeeInterface;
+
+    private EmployeeImporter importer;
+
+    @BeforeEach
+    void setUp() {
+        importer = new EmployeeImporter(batchWriter,
+                new DbBulkhead(2, new BulkheadProperties(2, 100, Duration.ofSeconds(1), Duration.ofMillis(10)),
+                        new SimpleMeterRegistry()),
+                JsonMapper.builder().build(), new ImportProperties(2, 2, 100, 10, 64), importedIds::addAll);
+    }
+
+    /**
+     * Valid lines are committed in batches; malformed and invalid lines are reported with their line number.
+     */
+    @Test
+    void importsNdjsonAndReportsBadLines() throws Exception {
+        ImportJob job = new ImportJob("1", "application/x-ndjson", 100);
+        importer.run(body("""
+                {"name":"a","email":"a@example.com","phone":"1"}
+                {"name":"b","email":"b@example.com"}
+
+                {"name":
+                {"name":"c","email":"not-an-email"}
+                {"name":"d","email":"d@example.com"}
+                """), EmployeeImporter.Format.NDJSON, job);
+        job.complete();
+
+        ImportJob.ImportStatus status = job.status();
+        assertEquals(5, status.rowsRead());
+        assertEquals(3, status.rowsImported());
+        assertEquals(2, status.rowsRejected());
+        assertEquals(List.of(new ImportJob.RowError(4, "malformed JSON"), new ImportJob.RowError(5, "email is invalid")),
+                status.errors());
+        assertEquals(3, importedIds.size());
+    }
+
+    /**
+     * CSV columns are matched by header name and quoted fields may hold separators, quotes and line breaks;
+     * a duplicate only rejects its own row when its batch is retried row by row.
+     */
+    @Test
+    void importsCsvAndIsolatesDuplicates() throws Exception {
+        batchWriter.persistAll(List.of(new Employee(null, "existing", "duplicate@" + domain, null, null)));
+        ImportJob job = new ImportJob("2", "text/csv", 100);
+        importer.run(body("""
+                phone,email,name,ignored\r
+                1,a@example.com,"Doe, ""Jane""",x\r
+                2,duplicate@example.com,b,x\r
+                3,c@example.com,"multi
+                line",x\r
+                """), EmployeeImporter.Format.CSV, job);
+        job.complete();
+
+        ImportJob.ImportStatus status = job.status();
+        assertEquals(3, status.rowsRead());
+        assertEquals(2, status.rowsImported());
+        assertEquals(List.of(new ImportJob.RowError(3, "conflicts with an existing employee")), status.errors());
+        assertEquals(Set.of("Doe, \"Jane\"", "multi\nline"), Set.copyOf(importedNames()));
+    }
+
+    /**
+     * A CSV upload without the required columns is rejected before any row is read.
+     */
+    @Test
+    void rejectsCsvWithoutRequiredHeader() {
+        ImportJob job = new ImportJob("3", "text/csv", 100);
+        assertThrows(BadRequestException.class,
+                () -> importer.run(body("name,phone\na,1\n"), EmployeeImporter.Format.CSV, job));
+    }
+
+    /**
+     * An oversized NDJSON line or a CSV record left open by an unterminated quote is rejected without being
+     * buffered, and reading resumes with the next line.
+     */
+    @Test
+    void rejectsOversizedRows() throws Exception {
+        ImportJob ndjson = new ImportJob("4", "application/x-ndjson", 100);
+        importer.run(body("{\"name\":\"" + "x".repeat(100) + "\",\"email\":\"x@example.com\"}\n"
+                + "{\"name\":\"a\",\"email\":\"a@example.com\"}\n"), EmployeeImporter.Format.NDJSON, ndjson);
+        ndjson.complete();
+
+        assertEquals(2, ndjson.status().rowsRead());
+        assertEquals(1, ndjson.status().rowsImported());
+        assertEquals(List.of(new ImportJob.RowError(1, "line exceeds 64 characters")), ndjson.status().errors());
+
+        ImportJob csv = new ImportJob("5", "text/csv", 100);
+        importer.run(body("name,email\n\"unterminated," + "x".repeat(100) + "\nb,b@example.com\n"),
+                EmployeeImporter.Format.CSV, csv);
+        csv.complete();
+
+        assertEquals(2, csv.status().rowsRead());
+        assertEquals(1, csv.status().rowsImported());
+        assertEquals(List.of(new ImportJob.RowError(2, "record exceeds 64 characters")), csv.status().errors());
+        assertEquals(Set.of("a", "b"), Set.copyOf(importedNames()));
+    }
+
+    private InputStream body(String text) {
+        return new ByteArrayInputStream(text.replace("@example.com", "@" + domain).getBytes(StandardCharsets.UTF_8));
+    }
+
+    private List<String> importedNames() {
+        return importedIds.stream()
+                .map(id -> employeeInterface.findViewById(id).orElseThrow().name())
+                .toList();
+    }
+}
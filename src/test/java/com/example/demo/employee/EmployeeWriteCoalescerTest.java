@@ -0,0 +1,112 @@
+package com.example.demo.employee;
+
+import com.example.demo.util.BulkheadProperties;
+import com.example.demo.util.DbBulkhead;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.DataIntegrityViolationException;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Verifies against H2 that concurrent creates share a commit and that a failing create only fails its
+ * own caller, with the exception the real batch writer throws.
+ */
+@SpringBootTest
+class EmployeeWriteCoalescerTest {
+
+    @Autowired
+    private EmployeeBatchWriter batchWriter;
+
+    /**
+     * Ten concurrent creates, one of them a duplicate email rejected by the database, are committed in fewer
+     * transactions than creates; the nine valid ones get ids and only the rejected one fails.
+     *
+     * <p>The first create's flush is held open until the other nine are queued, so the next window
+     * deterministically gathers all of them, whatever the scheduling.</p>
+     */
+    @Test
+    void coalescesCreatesAndIsolatesFailures() throws Exception {
+        String run = UUID.randomUUID().toString();
+        String duplicate = "duplicate_" + run + "@example.com";
+        batchWriter.persistAll(List.of(new Employee(null, "existing", duplicate, null, null)));
+        GatedBatchWriter writer = new GatedBatchWriter(batchWriter);
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        DbBulkhead bulkhead = new DbBulkhead(1,
+                new BulkheadProperties(1, 100, Duration.ofSeconds(1), Duration.ofSeconds(1)), registry);
+        EmployeeWriteCoalescer coalescer = new EmployeeWriteCoalescer(writer, bulkhead,
+                new CoalescingProperties(true, 256, Duration.ofMillis(50), 100, Duration.ofSeconds(5)), registry);
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            List<Future<Employee>> results = new ArrayList<>();
+            for (int i = 0; i < 10; i++) {
+                String email = i == 3 ? duplicate : "email_" + i + "_" + run + "@example.com";
+                results.add(executor.submit(() -> coalescer.save(new Employee(null, "name", email, "555", null))));
+                if (i == 0) {
+                    writer.firstBatchStarted.await();
+                }
+            }
+            while (registry.get("employee.coalescer.queue.depth").gauge().value() < 9) {
+                Thread.onSpinWait();
+            }
+            writer.releaseFirstBatch.countDown();
+
+            for (int i = 0; i < results.size(); i++) {
+                if (i == 3) {
+                    ExecutionException failure = assertThrows(ExecutionException.class, results.get(i)::get);
+                    assertInstanceOf(DataIntegrityViolationException.class, failure.getCause());
+                } else {
+                    assertNotNull(results.get(i).get().getId());
+                }
+            }
+        } finally {
+            coalescer.close();
+        }
+        assertEquals(List.of(1, 9), writer.batchSizes.subList(0, 2), "second window should hold the nine queued creates");
+    }
+
+    /**
+     * Delegates to the real batch writer, recording batch sizes and holding the first batch until released.
+     */
+    private static final class GatedBatchWriter extends EmployeeBatchWriter {
+
+        private final EmployeeBatchWriter delegate;
+        private final List<Integer> batchSizes = new CopyOnWriteArrayList<>();
+        private final CountDownLatch firstBatchStarted = new CountDownLatch(1);
+        private final CountDownLatch releaseFirstBatch = new CountDownLatch(1);
+
+        GatedBatchWriter(EmployeeBatchWriter delegate) {
+            super(null, null, 50);
+            this.delegate = delegate;
+        }
+
+        @Override
+        public List<Employee> persistAll(List<Employee> employees) {
+            batchSizes.add(employees.size());
+            if (firstBatchStarted.getCount() > 0) {
+                firstBatchStarted.countDown();
+                try {
+                    releaseFirstBatch.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            return delegate.persistAll(employees);
+        }
+    }
+}
@@ -0,0 +1,33 @@
+package com.example.demo.util;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+/**
+ * Verifies that the async log writer sheds records instead of blocking when its queue is full.
+ */
+class AsyncLogWriterTest {
+
+    /**
+     * A writer with no queue capacity drops and counts every record.
+     */
+    @Test
+    void dropsRecordsWhenQueueIsFull() throws InterruptedException {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        AsyncLogWriter writer = new AsyncLogWriter(0, registry);
+        try {
+            AsyncLogWriter.LogRecord logRecord = new AsyncLogWriter.LogRecord("GET", "/hello", null, null,
+                    new byte[0], 200, "application/json", null, new byte[0], 1);
+
+            assertFalse(writer.offer(logRecord));
+            assertFalse(writer.offer(logRecord));
+            assertEquals(2, writer.droppedCount());
+            assertEquals(2.0, registry.counter("logging.records.dropped").count());
+        } finally {
+            writer.close();
+        }
+    }
+}
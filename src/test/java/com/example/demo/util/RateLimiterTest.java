@@ -0,0 +1,122 @@
+package com.example.demo.util;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.servlet.function.RouterFunctions;
+import org.springframework.web.servlet.function.ServerRequest;
+import org.springframework.web.servlet.function.ServerResponse;
+import org.springframework.web.util.pattern.PathPatternParser;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Verifies token bucket admission, per-route overrides, rate limit headers and bucket eviction.
+ */
+class RateLimiterTest {
+
+    private final AtomicLong clock = new AtomicLong();
+    private final RateLimiter rateLimiter = new RateLimiter(
+            new RateLimitProperties(true, 10, 2,
+                    Map.of("POST /employee/batch", new RateLimitProperties.Limit(1, 1)),
+                    Duration.ofMinutes(1), 100),
+            new ProblemResponses(JsonMapper.builder().build(), new ProblemProperties(false, 16)),
+            new SimpleMeterRegistry(), clock::get);
+
+    /**
+     * A client gets its burst, is then rejected with 429 and Retry-After, and is admitted again once a
+     * token has accumulated; other clients are unaffected.
+     */
+    @Test
+    void admitsBurstThenRejectsUntilRefilled() throws Exception {
+        assertEquals(200, call("GET", "/employee/{id}", "a").getStatus());
+        MockHttpServletResponse second = call("GET", "/employee/{id}", "a");
+        assertEquals("2", second.getHeader("X-RateLimit-Limit"));
+        assertEquals("0", second.getHeader("X-RateLimit-Remaining"));
+
+        MockHttpServletResponse rejected = call("GET", "/employee/{id}", "a");
+        assertEquals(HttpStatus.TOO_MANY_REQUESTS.value(), rejected.getStatus());
+        assertEquals("1", rejected.getHeader("Retry-After"));
+        assertEquals(200, call("GET", "/employee/{id}", "b").getStatus());
+
+        clock.addAndGet(TimeUnit.MILLISECONDS.toNanos(100));
+        assertEquals(200, call("GET", "/employee/{id}", "a").getStatus());
+    }
+
+    /**
+     * Routes have their own buckets and overrides apply by method and pattern.
+     */
+    @Test
+    void appliesRouteOverrides() throws Exception {
+        assertEquals(200, call("POST", "/employee/batch", "a").getStatus());
+        assertEquals(429, call("POST", "/employee/batch", "a").getStatus());
+        assertEquals(200, call("GET", "/employee/{id}", "a").getStatus());
+    }
+
+    /**
+     * Buckets unused for longer than the idle timeout are evicted by a later request.
+     */
+    @Test
+    void evictsIdleBuckets() throws Exception {
+        for (int i = 0; i < 10; i++) {
+            call("GET", "/employee/{id}", "client-" + i);
+        }
+        assertEquals(10, rateLimiter.bucketCount());
+
+        clock.addAndGet(TimeUnit.MINUTES.toNanos(2));
+        call("GET", "/employee/{id}", "late");
+        assertEquals(1, rateLimiter.bucketCount());
+    }
+
+    /**
+     * Clients are told apart by address, so rotating an unvalidated {@code X-API-Key} buys no extra tokens.
+     */
+    @Test
+    void ignoresApiKeys() throws Exception {
+        assertEquals(200, call("GET", "/employee/{id}", "a", "key-1").getStatus());
+        assertEquals(200, call("GET", "/employee/{id}", "a", "key-2").getStatus());
+        assertEquals(429, call("GET", "/employee/{id}", "a", "key-3").getStatus());
+    }
+
+    /**
+     * Past {@code maxBuckets}, buckets are evicted instead of new clients sharing one, so every newcomer
+     * still gets its own burst.
+     */
+    @Test
+    void evictsBucketsBeyondMaxBuckets() throws Exception {
+        for (int i = 0; i < 150; i++) {
+            assertEquals(200, call("GET", "/employee/{id}", "client-" + i).getStatus());
+            assertEquals(200, call("GET", "/employee/{id}", "client-" + i).getStatus());
+        }
+        assertTrue(rateLimiter.bucketCount() <= 100);
+    }
+
+    private MockHttpServletResponse call(String method, String pattern, String client) throws Exception {
+        return call(method, pattern, client, null);
+    }
+
+    private MockHttpServletResponse call(String method, String pattern, String client, String apiKey) throws Exception {
+        MockHttpServletRequest servletRequest = new MockHttpServletRequest(method, pattern);
+        servletRequest.setRemoteAddr(client);
+        if (apiKey != null) {
+            servletRequest.addHeader("X-API-Key", apiKey);
+        }
+        servletRequest.setAttribute(RouterFunctions.MATCHING_PATTERN_ATTRIBUTE,
+                PathPatternParser.defaultInstance.parse(pattern));
+        ServerRequest request = ServerRequest.create(servletRequest, List.of());
+        ServerResponse response = rateLimiter.filter(request, r -> ServerResponse.ok().build());
+        MockHttpServletResponse servletResponse = new MockHttpServletResponse();
+        response.writeTo(servletRequest, servletResponse, () -> List.of());
+        return servletResponse;
+    }
+}
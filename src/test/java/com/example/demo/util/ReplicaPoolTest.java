@@ -0,0 +1,82 @@
+package com.example.demo.util;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.datasource.AbstractDataSource;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Verifies replica selection, failover to the primary and read-your-writes pinning.
+ */
+class ReplicaPoolTest {
+
+    private static final ReplicaProperties PROPERTIES = new ReplicaProperties(true, List.of(), null, null, 10,
+            ReplicaProperties.Selection.ROUND_ROBIN, Duration.ofMinutes(1), Duration.ofSeconds(1),
+            Duration.ofSeconds(2), 100);
+
+    /**
+     * Healthy replicas take turns; a replica failing to connect is skipped from then on.
+     */
+    @Test
+    void roundRobinSkipsFailedReplica() throws SQLException {
+        try (ReplicaPool pool = new ReplicaPool(h2("primary"), List.of(h2("replica1"), down(), h2("replica2")),
+                PROPERTIES, new SimpleMeterRegistry())) {
+            assertEquals("replica1", databaseOf(pool));
+            assertEquals("replica2", databaseOf(pool));
+            assertEquals("replica1", databaseOf(pool));
+            assertEquals("replica2", databaseOf(pool));
+        }
+    }
+
+    /**
+     * Reads fail over to the primary when no replica is healthy, and pinned threads always read the primary.
+     */
+    @Test
+    void usesPrimaryWhenReplicasAreDownOrThreadIsPinned() throws SQLException {
+        try (ReplicaPool down = new ReplicaPool(h2("primary"), List.of(down()), PROPERTIES, new SimpleMeterRegistry());
+             ReplicaPool up = new ReplicaPool(h2("primary"), List.of(h2("replica1")), PROPERTIES, new SimpleMeterRegistry())) {
+            assertEquals("primary", databaseOf(down));
+
+            ReplicaPool.pinToPrimary(true);
+            try {
+                assertEquals("primary", databaseOf(up));
+            } finally {
+                ReplicaPool.pinToPrimary(false);
+            }
+            assertEquals("replica1", databaseOf(up));
+        }
+    }
+
+    private static DataSource h2(String name) {
+        return new DriverManagerDataSource("jdbc:h2:mem:" + name, "sa", "");
+    }
+
+    private static DataSource down() {
+        return new AbstractDataSource() {
+            @Override
+            public Connection getConnection() throws SQLException {
+                throw new SQLException("connection refused");
+            }
+
+            @Override
+            public Connection getConnection(String username, String password) throws SQLException {
+                return getConnection();
+            }
+        };
+    }
+
+    private static String databaseOf(DataSource dataSource) throws SQLException {
+        try (Connection connection = dataSource.getConnection()) {
+            String url = connection.getMetaData().getURL();
+            return url.substring(url.lastIndexOf(':') + 1);
+        }
+    }
+}
@@ -0,0 +1,124 @@
+package com.example.demo.util;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Verifies that concurrent identical reads share one load, its outcome and its failure, and that
+ * waiting is bounded.
+ */
+class SingleFlightTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+    /**
+     * A hundred concurrent callers for one key run a single load and all receive its empty result;
+     * the next caller, arriving after it finished, loads again.
+     */
+    @Test
+    void concurrentCallersShareOneLoad() throws Exception {
+        SingleFlight<Long, Optional<String>> flights = flights(Duration.ofSeconds(5));
+        AtomicInteger loads = new AtomicInteger();
+        CountDownLatch release = new CountDownLatch(1);
+        List<Future<Optional<String>>> results = new ArrayList<>();
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < 100; i++) {
+                results.add(executor.submit(() -> flights.execute(1L, () -> {
+                    loads.incrementAndGet();
+                    await(release);
+                    return Optional.empty();
+                })));
+            }
+            while (registry.counter("singleflight.calls", "name", "test", "role", "follower").count() < 99) {
+                Thread.onSpinWait();
+            }
+            release.countDown();
+            for (Future<Optional<String>> result : results) {
+                assertEquals(Optional.empty(), result.get());
+            }
+        }
+        assertEquals(1, loads.get());
+
+        flights.execute(1L, () -> {
+            loads.incrementAndGet();
+            return Optional.empty();
+        });
+        assertEquals(2, loads.get());
+    }
+
+    /**
+     * A failing load fails its waiting callers with the same exception and is not kept afterwards.
+     */
+    @Test
+    void sharesFailureAndCleansUp() throws Exception {
+        SingleFlight<Long, String> flights = flights(Duration.ofSeconds(5));
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            Future<String> leader = executor.submit(() -> flights.execute(1L, () -> {
+                started.countDown();
+                await(release);
+                throw new ResourceNotFoundException("gone");
+            }));
+            started.await();
+            Future<String> follower = executor.submit(() -> flights.execute(1L, () -> "unused"));
+            while (registry.counter("singleflight.calls", "name", "test", "role", "follower").count() < 1) {
+                Thread.onSpinWait();
+            }
+            release.countDown();
+            assertInstanceOf(ResourceNotFoundException.class, assertThrows(ExecutionException.class, leader::get).getCause());
+            assertInstanceOf(ResourceNotFoundException.class, assertThrows(ExecutionException.class, follower::get).getCause());
+        }
+        assertEquals("fresh", flights.execute(1L, () -> "fresh"));
+    }
+
+    /**
+     * A caller waiting on a load that outlives the bound gets a 503 instead of blocking indefinitely.
+     */
+    @Test
+    void boundsTheWait() throws Exception {
+        SingleFlight<Long, String> flights = flights(Duration.ofMillis(50));
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            Future<String> leader = executor.submit(() -> flights.execute(1L, () -> {
+                started.countDown();
+                await(release);
+                return "slow";
+            }));
+            started.await();
+            assertThrows(ServiceUnavailableException.class, () -> flights.execute(1L, () -> "unused"));
+            release.countDown();
+            assertEquals("slow", leader.get());
+        }
+        assertEquals(1, registry.counter("singleflight.calls", "name", "test", "role", "timeout").count());
+    }
+
+    private <V> SingleFlight<Long, V> flights(Duration maxWait) {
+        return new SingleFlight<>("test", new SingleFlightProperties(true, maxWait), registry);
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        }
+    }
+}
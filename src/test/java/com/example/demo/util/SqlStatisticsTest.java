@@ -0,0 +1,47 @@
+package com.example.demo.util;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Verifies query shape normalization and per-request N+1 detection.
+ */
+class SqlStatisticsTest {
+
+    /**
+     * Literals and IN lists of any length collapse to one shape.
+     */
+    @Test
+    void normalizesLiteralsIntoOneShape() {
+        assertEquals("select * from employee e1_0 where e1_0.id in (?...) and e1_0.name=?",
+                SqlStatistics.normalize("SELECT * FROM employee e1_0\n WHERE e1_0.id IN (?, ?, ?) AND e1_0.name='it''s'"));
+        assertEquals(SqlStatistics.normalize("select * from employee where id = 1"),
+                SqlStatistics.normalize("select * from employee where id = 42"));
+    }
+
+    /**
+     * A request repeating one SELECT shape past the threshold is counted and reported once.
+     */
+    @Test
+    void reportsRepeatedSelectsWithinARequest() {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        SqlStatistics statistics = new SqlStatistics(
+                new SqlProperties(true, Duration.ofSeconds(1), 1.0, 3, 200), registry);
+
+        statistics.beginRequest();
+        for (int id = 1; id <= 3; id++) {
+            statistics.record("select * from employee where id = " + id, 1_000, 1);
+        }
+        statistics.record("update employee set name = 'x' where id = 1", 1_000, 1);
+        statistics.endRequest("/employee");
+
+        assertEquals(1.0, registry.get("db.n_plus_one").tag("route", "/employee").counter().count());
+        assertEquals(4.0, registry.get("db.statements.per.request").summary().totalAmount());
+        assertEquals(1, statistics.recentNPlusOne().size());
+        assertEquals(3, statistics.recentNPlusOne().getFirst().executions());
+    }
+}